@@ -0,0 +1,61 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+/*
+ * Benchmark fixture: a PortalStub and a headless Chrome logged into it.
+ *
+ * The grid pages are opened with ?pageSize=rows so a single page renders the whole requested
+ * grid size; the stub holds three pages of it so the td[@colspan='11'] pager is rendered too.
+ */
+final class BenchPortal implements AutoCloseable {
+
+    final PortalStub stub;
+    final WebDriver driver;
+    final int rows;
+
+    BenchPortal(int rows) {
+        this.rows = rows;
+        this.stub = new PortalStub(rows * 3, 0).start(0);
+
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--window-size=1920,1080", "--disable-gpu");
+        WebDriver chrome = null;
+        try {
+            chrome = new ChromeDriver(options);
+            chrome.get(stub.baseUrl() + "/LoginPage");
+            chrome.findElement(Portal.txtUsername).sendKeys(Portal.USERNAME);
+            chrome.findElement(Portal.txtPassword).sendKeys(Portal.PASSWORD);
+            chrome.findElement(By.id("btnLogin")).click();
+        } catch (RuntimeException e) {
+            if (chrome != null) chrome.quit();
+            stub.stop();
+            throw e;
+        }
+        this.driver = chrome;
+    }
+
+    // Rejected grid with all benchmark rows on the page
+    BenchPortal openRejected() {
+        driver.get(stub.baseUrl() + PortalStub.REJECTED_PATH + "?pageSize=" + rows);
+        return this;
+    }
+
+    // Pending grid, which also carries the Policy Name search input
+    BenchPortal openPending() {
+        driver.get(stub.baseUrl() + PortalStub.PENDING_PATH + "?pageSize=" + rows);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        try {
+            driver.quit();
+        } finally {
+            stub.stop();
+        }
+    }
+}
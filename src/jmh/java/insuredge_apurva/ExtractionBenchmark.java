@@ -0,0 +1,113 @@
+package insuredge_apurva;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Reading grid content element by element (one round-trip per cell, the suite's old pattern)
+ * against one script for the whole column or the whole grid (GridSnapshot), and the cost of
+ * getText() against getAttribute("value") / getDomProperty("value") for single reads.
+ *
+ * Runs on the Pending grid, which also has the Policy Name input used by US17P4_09.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    private static final String GRID = "ContentPlaceHolder_Admin_gvPendingHolders";
+    private static final By CUSTOMER_CELLS = By.cssSelector("#" + GRID + " > tbody > tr > td:first-child:not([colspan])");
+    private static final By POLICY_NAME_INPUT = By.xpath("//input[@placeholder='Search by Policy Name']");
+
+    // arguments[0]: grid id
+    private static final String COLUMN_JS =
+            "var rows = document.getElementById(arguments[0]).rows, out = [];"
+                    + "for (var i = 0; i < rows.length; i++) {"
+                    + "  var c = rows[i].cells[0];"
+                    + "  if (c && c.tagName === 'TD' && c.colSpan === 1) out.push(c.textContent.trim());"
+                    + "}"
+                    + "return out;";
+
+    @Param({"10", "100", "1000", "10000"})
+    public int rows;
+
+    private BenchPortal portal;
+    private JavascriptExecutor js;
+    private WebElement firstCell;
+    private WebElement policyNameInput;
+
+    @Setup(Level.Trial)
+    public void open() {
+        portal = new BenchPortal(rows).openPending();
+        js = (JavascriptExecutor) portal.driver;
+        new WebDriverWait(portal.driver, Duration.ofSeconds(30))
+                .until(ExpectedConditions.presenceOfElementLocated(By.id(GRID)));
+        firstCell = portal.driver.findElement(CUSTOMER_CELLS);
+        policyNameInput = portal.driver.findElement(POLICY_NAME_INPUT);
+        policyNameInput.sendKeys("Policy@123");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        portal.close();
+    }
+
+    // ---------- Whole column / grid ----------
+
+    @Benchmark
+    public void columnPerElementGetText(Blackhole bh) {
+        List<WebElement> cells = portal.driver.findElements(CUSTOMER_CELLS);
+        for (WebElement cell : cells) bh.consume(cell.getText());
+    }
+
+    @Benchmark
+    public Object columnBulkScript() {
+        return js.executeScript(COLUMN_JS, GRID);
+    }
+
+    @Benchmark
+    public GridSnapshot gridBulkSnapshot() {
+        return GridSnapshot.capture(portal.driver, GRID);
+    }
+
+    // ---------- Single reads ----------
+
+    @Benchmark
+    public String cellGetText() {
+        return firstCell.getText();
+    }
+
+    @Benchmark
+    public String inputGetAttributeValue() {
+        return policyNameInput.getAttribute("value");
+    }
+
+    @Benchmark
+    public String inputGetDomPropertyValue() {
+        return policyNameInput.getDomProperty("value");
+    }
+}
@@ -0,0 +1,128 @@
+package insuredge_apurva;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost of the locators the suite uses against their CSS / id equivalents, with the Rejected grid
+ * rendering 10 to 10,000 rows (document size is what makes positional and text XPaths expensive).
+ *
+ * Pairs share a prefix so they sort next to each other in the results:
+ *   chevron*    //*[@id='sidebar-nav']/li[5]/a/i[2]               (US17P4_07, _20, _25)
+ *   pagerCell*  //td[@colspan='11']/table/tbody/tr/td[2]          (US17P4_20)
+ *   grid*       //table[@id='...gvRejectedHolders']               (US17P4_20, _25)
+ *   status*     //th[normalize-space()='Status']                  (US17P4_25)
+ *   pageLink*   //td[@colspan='11']//a[normalize-space()='2']     (US17P4_07)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LocatorBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int rows;
+
+    private BenchPortal portal;
+
+    @Setup(Level.Trial)
+    public void open() {
+        portal = new BenchPortal(rows).openRejected();
+        new WebDriverWait(portal.driver, Duration.ofSeconds(30))
+                .until(ExpectedConditions.presenceOfElementLocated(By.id(GridSnapshot.REJECTED_GRID)));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        portal.close();
+    }
+
+    private WebElement find(By by) {
+        return portal.driver.findElement(by);
+    }
+
+    // ---------- Sidebar chevron ----------
+
+    @Benchmark
+    public WebElement chevronPositionalXpath() {
+        return find(By.xpath("//*[@id='sidebar-nav']/li[5]/a/i[2]"));
+    }
+
+    @Benchmark
+    public WebElement chevronCss() {
+        return find(By.cssSelector("#sidebar-nav > li:nth-of-type(5) > a > i:nth-of-type(2)"));
+    }
+
+    // ---------- Pager cell ----------
+
+    @Benchmark
+    public WebElement pagerCellPositionalXpath() {
+        return find(By.xpath("//td[@colspan='11']/table/tbody/tr/td[2]"));
+    }
+
+    @Benchmark
+    public WebElement pagerCellCss() {
+        return find(By.cssSelector("td[colspan='11'] > table > tbody > tr > td:nth-child(2)"));
+    }
+
+    // ---------- Grid table ----------
+
+    @Benchmark
+    public WebElement gridXpath() {
+        return find(By.xpath("//table[@id='" + GridSnapshot.REJECTED_GRID + "']"));
+    }
+
+    @Benchmark
+    public WebElement gridCss() {
+        return find(By.cssSelector("#" + GridSnapshot.REJECTED_GRID));
+    }
+
+    @Benchmark
+    public WebElement gridId() {
+        return find(By.id(GridSnapshot.REJECTED_GRID));
+    }
+
+    // ---------- Status header ----------
+
+    @Benchmark
+    public WebElement statusNormalizeSpaceXpath() {
+        return find(By.xpath("//th[normalize-space()='Status']"));
+    }
+
+    @Benchmark
+    public WebElement statusCss() {
+        return find(By.cssSelector("#" + GridSnapshot.REJECTED_GRID + " th:nth-child(11)"));
+    }
+
+    // ---------- Page link ----------
+
+    @Benchmark
+    public WebElement pageLinkNormalizeSpaceXpath() {
+        return find(By.xpath("//td[@colspan='11']//a[normalize-space()='2']"));
+    }
+
+    @Benchmark
+    public WebElement pageLinkText() {
+        return find(By.linkText("2"));
+    }
+}
@@ -0,0 +1,110 @@
+package insuredge_apurva;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost to a test thread of one progress line with 5 test threads logging at once: the same two
+ * sinks as log4j2.xml (a console line and a buffered tab-separated file line) written on the test
+ * thread, against the Log4j2 async SuiteLog writing them from its background thread, and a
+ * disabled DEBUG call against doing nothing. Both sides format the same lines into the same sinks,
+ * so the difference is the async hand-off, not how much gets written.
+ *
+ * System.out is pointed at target/logging-benchmark.out before Log4j starts, so the synchronous
+ * console line and the Console appender write to the same file and no real terminal is involved.
+ * Run with: mvn -Pjmh compile exec:exec -Djmh.args="Logging"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(5)
+public class LoggingBenchmark {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private PrintStream console;
+    private PrintStream original;
+    // Stands in for the SuiteLog RandomAccessFile appender: 256 KB buffer, no flush per line
+    private Writer suiteLog;
+
+    @State(Scope.Thread)
+    public static class TestThread {
+        int row;
+
+        @Setup(Level.Trial)
+        public void bind() {
+            SuiteLog.bind("US17P4_09", "testTC04_PolicyNameFromSheet");
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void redirect() throws IOException {
+        File file = new File("target", "logging-benchmark.out");
+        file.getParentFile().mkdirs();
+        original = System.out;
+        console = new PrintStream(new FileOutputStream(file), true, "UTF-8");
+        System.setOut(console);
+        suiteLog = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(new File("target", "logging-benchmark-sync.log")), StandardCharsets.UTF_8), 256 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void restore() throws IOException {
+        System.setOut(original);
+        console.close();
+        suiteLog.close();
+    }
+
+    // Both sinks on the test thread: the console line under the stream's lock, then the file line
+    @Benchmark
+    public void syncConsoleAndFile(TestThread t) throws IOException {
+        String message = "TC04 row " + t.row++;
+        String thread = Thread.currentThread().getName();
+        System.out.println("[" + LocalTime.now().format(TIME) + "][" + thread + "][US17P4_09] " + message);
+        String line = System.currentTimeMillis() + "\tINFO\t" + thread + "\tUS17P4_09\t" + message + "\n";
+        synchronized (suiteLog) {
+            suiteLog.write(line);
+        }
+    }
+
+    @Benchmark
+    public void asyncLog4j(TestThread t) {
+        SuiteLog.info("TC04 row " + t.row++);
+    }
+
+    @Benchmark
+    public void asyncLog4jDebugDisabled(TestThread t) {
+        SuiteLog.debug("TC04 row {}", t.row++);
+    }
+
+    @Benchmark
+    public void baselineNothing(TestThread t) {
+        t.row++;
+    }
+}
@@ -0,0 +1,303 @@
+package insuredge_apurva;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Sizes the DriverPool, and with it the number of classes running at once, from what the machine
+ * and the browsers are doing right now (testng-adaptive.xml).
+ *
+ * The suite's thread-count is only an upper bound: a class that cannot borrow a session queues in
+ * DriverPool.borrow(), where -Dpool.borrowTimeoutSec counts from the pool's last progress while the
+ * controller runs (a class may wait as long as sessions keep coming back, however slow the portal). Every -Dconcurrency.intervalSec (10) the controller reads system CPU load,
+ * available memory, and the commands and their p95 latency recorded by CommandMetrics since the
+ * last tick, then moves the pool limit:
+ *   down (x3/4)  memory below -Dconcurrency.minFreeMb (1024), CPU above -Dconcurrency.maxCpu (0.85),
+ *                or command p95 above -Dconcurrency.p95Factor (1.5) x the best p95 seen so far
+ *   up (+1)      every session is busy, there is room for one more (-Dconcurrency.sessionMb, 400)
+ *                and throughput (commands/s) at this limit beat the one below it by 5%
+ *   hold         otherwise; a step that did not pay off caps growth for the next 6 ticks
+ * A new limit is judged only after it has run for two ticks; only the memory check acts sooner. Bounds: -Dconcurrency.min (1),
+ * -Dconcurrency.max (pool.size, 6), start at -Dconcurrency.start (2).
+ *
+ * Every tick is a line in test-output/concurrency-timeline.csv. At the end the time, throughput
+ * and p95 per limit are logged, and the run's wall time and time-weighted mean limit are added to
+ * test-output/concurrency-history.csv to find the limit that gave the best wall time over runs.
+ */
+public class AdaptiveConcurrency implements ISuiteListener, ITestListener {
+
+    private static final File TIMELINE = new File("test-output", "concurrency-timeline.csv");
+    private static final File HISTORY = new File("test-output", "concurrency-history.csv");
+    private static final int MIN_SAMPLES = 20;
+    private static final int SETTLE_TICKS = 2;
+    private static final int CAP_TICKS = 6;
+
+    private final int min = Integer.getInteger("concurrency.min", 1);
+    private final int max = Integer.getInteger("concurrency.max", Integer.getInteger("pool.size", 6));
+    private final int start = Integer.getInteger("concurrency.start", 2);
+    private final long intervalSec = Long.getLong("concurrency.intervalSec", 10);
+    private final long minFreeMb = Long.getLong("concurrency.minFreeMb", 1024);
+    private final long sessionMb = Long.getLong("concurrency.sessionMb", 400);
+    private final double maxCpu = Double.parseDouble(System.getProperty("concurrency.maxCpu", "0.85"));
+    private final double p95Factor = Double.parseDouble(System.getProperty("concurrency.p95Factor", "1.5"));
+
+    private final AtomicInteger testsDone = new AtomicInteger();
+    private final Map<Integer, Level> levels = new TreeMap<>();
+
+    private ScheduledExecutorService ticker;
+    private PrintWriter timeline;
+    private long suiteStart;
+
+    // Controller state, only touched by the ticker thread
+    private int ticksAtLimit;
+    private int cap = Integer.MAX_VALUE;
+    private int capTicks;
+    private double bestP95 = -1;
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.nanoTime();
+        DriverPool.get().resize(clamp(start));
+        DriverPool.get().setManaged(true);
+        TIMELINE.getParentFile().mkdirs();
+        try {
+            timeline = new PrintWriter(new OutputStreamWriter(new FileOutputStream(TIMELINE), StandardCharsets.UTF_8), true);
+            timeline.println("elapsed_s,limit,open,leased,cpu_pct,free_mb,commands_per_s,p95_ms,tests,action,reason");
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + TIMELINE + ": " + e.getMessage());
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "adaptive-concurrency");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, intervalSec, intervalSec, TimeUnit.SECONDS);
+        SuiteLog.info(String.format("Adaptive concurrency: start %d, bounds %d..%d, every %d s",
+                clamp(start), min, max, intervalSec));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        testsDone.incrementAndGet();
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        testsDone.incrementAndGet();
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        testsDone.incrementAndGet();
+    }
+
+    // ---------- Control loop ----------
+
+    private void tick() {
+        try {
+            DriverPool pool = DriverPool.get();
+            LatencyHistogram window = CommandMetrics.get().window();
+            int limit = pool.limit();
+            double cpu = cpuLoad();
+            long freeMb = availableMb();
+            double perSecond = window.count() / (double) intervalSec;
+            double p95 = window.count() >= MIN_SAMPLES ? window.percentileMillis(0.95) : -1;
+            int tests = testsDone.getAndSet(0);
+
+            ticksAtLimit++;
+            Level level = levels.computeIfAbsent(limit, k -> new Level());
+            // The first tick after a change still carries the start-up of the new sessions
+            if (ticksAtLimit > 1) level.add(perSecond, p95, tests);
+            if (p95 > 0 && ticksAtLimit > 1) bestP95 = bestP95 < 0 ? p95 : Math.min(bestP95, p95);
+            if (capTicks > 0 && --capTicks == 0) cap = Integer.MAX_VALUE;
+
+            String action = "hold";
+            String reason;
+            int next = limit;
+            if (freeMb >= 0 && freeMb < minFreeMb) {
+                next = down(limit);
+                reason = "free memory " + freeMb + " MB";
+            } else if (ticksAtLimit <= SETTLE_TICKS) {
+                // CPU and p95 still show the new sessions starting; backing off on them would oscillate
+                reason = "settling";
+            } else if (cpu > maxCpu) {
+                next = down(limit);
+                reason = String.format("cpu %.0f%%", cpu * 100);
+            } else if (p95 > 0 && bestP95 > 0 && p95 > bestP95 * p95Factor) {
+                next = down(limit);
+                reason = String.format("p95 %.0f ms vs best %.0f ms", p95, bestP95);
+            } else if (pool.leased() < limit) {
+                reason = "not every session busy";
+            } else if (limit >= Math.min(max, cap)) {
+                reason = limit >= max ? "at max" : "capped";
+            } else if (freeMb >= 0 && freeMb < minFreeMb + sessionMb) {
+                reason = "no room for another session";
+            } else if (!paidOff(limit)) {
+                // The last step up did not raise throughput: go back and leave it for a while
+                cap = limit - 1;
+                capTicks = CAP_TICKS;
+                next = down(limit);
+                reason = String.format("throughput %.1f/s not above %.1f/s at %d", levels.get(limit).perSecond(),
+                        levels.get(limit - 1).perSecond(), limit - 1);
+            } else {
+                next = limit + 1;
+                reason = String.format("throughput %.1f/s", level.perSecond());
+            }
+
+            if (next != limit) {
+                action = next > limit ? "up" : "down";
+                pool.resize(next);
+                ticksAtLimit = 0;
+                SuiteLog.info("Adaptive concurrency " + limit + " -> " + next + ": " + reason);
+            }
+            if (timeline != null) {
+                timeline.println(String.format("%d,%d,%d,%d,%.0f,%d,%.1f,%.0f,%d,%s,%s",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - suiteStart), limit, pool.stats().open,
+                        pool.leased(), cpu * 100, freeMb, perSecond, p95, tests, action, reason.replace(',', ';')));
+            }
+        } catch (RuntimeException e) {
+            // A failed tick must not cancel the schedule
+            SuiteLog.info("Adaptive concurrency tick failed: " + e);
+        }
+    }
+
+    // Throughput at this limit beat the limit below it; with nothing below to compare, growing is the test
+    private boolean paidOff(int limit) {
+        Level below = levels.get(limit - 1);
+        Level here = levels.get(limit);
+        if (below == null || below.ticks == 0 || here == null || here.ticks == 0) return true;
+        return here.perSecond() >= below.perSecond() * 1.05;
+    }
+
+    private int down(int limit) {
+        return clamp(Math.min(limit - 1, limit * 3 / 4));
+    }
+
+    private int clamp(int n) {
+        return Math.max(min, Math.min(max, n));
+    }
+
+    // ---------- Machine ----------
+
+    private static double cpuLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            @SuppressWarnings("deprecation")
+            double load = ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+            return Math.max(0, load);
+        }
+        return Math.max(0, os.getSystemLoadAverage() / os.getAvailableProcessors());
+    }
+
+    // MemAvailable (what can be used without swapping), else free physical memory, else -1
+    private static long availableMb() {
+        try {
+            for (String line : Files.readAllLines(new File("/proc/meminfo").toPath(), StandardCharsets.UTF_8)) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.substring(13).trim().split("\\s+")[0]) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException notLinux) {
+            // fall through
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            @SuppressWarnings("deprecation")
+            long free = ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize();
+            return free / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    // ---------- Report ----------
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DriverPool.get().setManaged(false);
+        ticker.shutdownNow();
+        try {
+            ticker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (timeline != null) timeline.close();
+
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - suiteStart);
+        StringBuilder sb = new StringBuilder("Adaptive concurrency per limit:\n");
+        sb.append(String.format("%6s %8s %12s %10s %10s%n", "limit", "time s", "commands/s", "tests/min", "p95 ms"));
+        long weighted = 0;
+        long ticks = 0;
+        int highest = 0;
+        for (Map.Entry<Integer, Level> e : levels.entrySet()) {
+            Level l = e.getValue();
+            if (l.ticks == 0) continue;
+            weighted += (long) e.getKey() * l.ticks;
+            ticks += l.ticks;
+            highest = Math.max(highest, e.getKey());
+            sb.append(String.format("%6d %8d %12.1f %10.1f %10.0f%n", e.getKey(), l.ticks * intervalSec,
+                    l.perSecond(), l.tests * 60.0 / (l.ticks * intervalSec), l.meanP95()));
+        }
+        double meanLimit = ticks == 0 ? DriverPool.get().limit() : (double) weighted / ticks;
+        sb.append(String.format("Wall %d ms at mean limit %.1f (timeline: %s)%n", wallMs, meanLimit, TIMELINE));
+        SuiteLog.info(sb.toString());
+        appendHistory(suite.getName(), wallMs, meanLimit, highest);
+    }
+
+    private static void appendHistory(String suite, long wallMs, double meanLimit, int highest) {
+        boolean header = !HISTORY.isFile();
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(HISTORY, true), StandardCharsets.UTF_8))) {
+            if (header) out.println("date,suite,wall_ms,mean_limit,max_limit");
+            out.println(String.format("%s,%s,%d,%.2f,%d", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date()),
+                    suite.replace(',', ' '), wallMs, meanLimit, highest));
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + HISTORY + ": " + e.getMessage());
+        }
+    }
+
+    // Ticks spent at one limit, after its settling tick
+    private static final class Level {
+        int ticks;
+        double commandsPerSecond;
+        int tests;
+        double p95Sum;
+        int p95Ticks;
+
+        void add(double perSecond, double p95, int tests) {
+            ticks++;
+            commandsPerSecond += perSecond;
+            this.tests += tests;
+            if (p95 > 0) {
+                p95Sum += p95;
+                p95Ticks++;
+            }
+        }
+
+        double perSecond() {
+            return ticks == 0 ? 0 : commandsPerSecond / ticks;
+        }
+
+        double meanP95() {
+            return p95Ticks == 0 ? 0 : p95Sum / p95Ticks;
+        }
+    }
+}
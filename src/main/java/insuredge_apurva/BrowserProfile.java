@@ -0,0 +1,138 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Named Chrome set-ups that DriverPool sessions are created with.
+ *
+ *   FIDELITY  headed, maximized, default options: everything the portal serves is loaded
+ *   FAST      headless at 1920x1080, no extensions, no background networking/sync/component updates,
+ *             and images, web fonts and analytics requests blocked through DevTools
+ *             (Network.setBlockedURLs)
+ *
+ * FAST still loads HTML, CSS and the portal's own scripts: computed styles (the bold-header check of
+ * US17P4_18) and the ASP.NET postbacks behave as in FIDELITY. Without the web font files Chrome
+ * falls back to a local font, which changes glyphs but not the computed font-weight.
+ *
+ * Which profile a class gets, first match wins:
+ *   -Dbrowser.profile.<SimpleClassName>=fast|fidelity
+ *   @BrowserProfile.Use(...) on the class
+ *   the suite's <parameter name="browser.profile"> (bound by DriverPoolListener)
+ *   -Dbrowser.profile=fast|fidelity (default fidelity)
+ */
+public enum BrowserProfile {
+
+    FAST, FIDELITY;
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface Use {
+        BrowserProfile value();
+    }
+
+    static final List<String> BLOCKED_URLS = Collections.unmodifiableList(Arrays.asList(
+            // images
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico", "*.bmp",
+            // web fonts
+            "*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot",
+            // analytics and tag managers
+            "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*",
+            "*hotjar.com*", "*clarity.ms*", "*facebook.net*"));
+
+    private static final Dimension FAST_WINDOW = new Dimension(1920, 1080);
+
+    private static volatile BrowserProfile suiteDefault = parse(System.getProperty("browser.profile"), FIDELITY);
+
+    public static BrowserProfile suiteDefault() {
+        return suiteDefault;
+    }
+
+    // From the suite XML; the -D property still wins so one run can be switched from the command line
+    static void bindSuite(String value) {
+        if (System.getProperty("browser.profile") == null && value != null) {
+            suiteDefault = parse(value, suiteDefault);
+        }
+    }
+
+    public static BrowserProfile forClass(Class<?> testClass) {
+        String override = System.getProperty("browser.profile." + testClass.getSimpleName());
+        if (override != null) return parse(override, suiteDefault);
+        Use use = testClass.getAnnotation(Use.class);
+        return use != null ? use.value() : suiteDefault;
+    }
+
+    static BrowserProfile parse(String value, BrowserProfile fallback) {
+        if (value == null || value.trim().isEmpty()) return fallback;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown browser profile '" + value + "', expected fast or fidelity");
+        }
+    }
+
+    // ---------- Session set-up ----------
+
+    public ChromeOptions options() {
+        ChromeOptions options = new ChromeOptions();
+        if (this == FAST) {
+            options.addArguments(
+                    "--headless=new",
+                    "--window-size=" + FAST_WINDOW.getWidth() + "," + FAST_WINDOW.getHeight(),
+                    "--disable-extensions",
+                    "--disable-background-networking",
+                    "--disable-component-update",
+                    "--disable-default-apps",
+                    "--disable-sync",
+                    "--no-first-run",
+                    "--mute-audio");
+            // Belt and braces for images the URL patterns miss (data behind extension-less URLs)
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+        return options;
+    }
+
+    // Runs on the raw ChromeDriver before it is decorated, so the DevTools calls are not timed as test commands
+    public void prepare(ChromeDriver driver) {
+        blockResources(driver);
+        resetWindow(driver);
+    }
+
+    // Blocking is per tab: tabs opened later (ViewportMatrix) call this for themselves
+    public void blockResources(HasCdp cdp) {
+        if (this == FAST) {
+            cdp.executeCdpCommand("Network.enable", Collections.<String, Object>emptyMap());
+            cdp.executeCdpCommand("Network.setBlockedURLs",
+                    Collections.<String, Object>singletonMap("urls", BLOCKED_URLS));
+        }
+    }
+
+    // Headless windows cannot be maximized to a screen, so FAST pins the size instead
+    public void resetWindow(WebDriver driver) {
+        if (this == FAST) {
+            driver.manage().window().setSize(FAST_WINDOW);
+        } else {
+            driver.manage().window().maximize();
+        }
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
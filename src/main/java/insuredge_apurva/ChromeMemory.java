@@ -0,0 +1,192 @@
+package insuredge_apurva;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+ * Memory of the Chrome processes behind the pooled sessions, per concurrent session.
+ *
+ * Linux only (/proc). A browser is found by its --user-data-dir (reported by chromedriver in the
+ * session capabilities); its whole process tree (GPU, network, renderers, utilities) is summed as
+ * PSS from smaps_rollup, which splits shared pages between processes instead of counting them once
+ * per process as RSS would; VmRSS is the fallback where smaps_rollup is missing. chromedriver
+ * itself is not counted.
+ *
+ * DriverPool samples on a background schedule and at shutdown; the sample with the most sessions
+ * open is kept (the larger total on ties). DriverPoolListener prints it and
+ * test-output/memory-stats.properties keeps the latest peak per -Dpool.mode, so processes and
+ * contexts can be compared side by side.
+ */
+public final class ChromeMemory {
+
+    private static final File PROC = new File("/proc");
+    private static final File STORE = new File("test-output", "memory-stats.properties");
+
+    private static final ChromeMemory INSTANCE = new ChromeMemory();
+
+    public static ChromeMemory get() {
+        return INSTANCE;
+    }
+
+    private final boolean supported = new File(PROC, "self/stat").isFile();
+
+    private int peakSessions;
+    private int peakBrowsers;
+    private long peakKb;
+    private int processes;
+
+    private ChromeMemory() {
+    }
+
+    // One sample: sessions currently open and the user-data-dirs of the browsers behind them
+    public void sample(int sessions, Collection<String> userDataDirs) {
+        if (!supported || sessions == 0) return;
+        Set<String> dirs = new HashSet<>(userDataDirs);
+        dirs.remove(null);
+        if (dirs.isEmpty()) return;
+
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        List<Integer> roots = new ArrayList<>();
+        scan(dirs, children, roots);
+        long kb = 0;
+        int count = 0;
+        List<Integer> todo = new ArrayList<>(roots);
+        while (!todo.isEmpty()) {
+            int pid = todo.remove(todo.size() - 1);
+            kb += memoryKb(pid);
+            count++;
+            List<Integer> c = children.get(pid);
+            if (c != null) todo.addAll(c);
+        }
+
+        synchronized (this) {
+            if (sessions > peakSessions || (sessions == peakSessions && kb > peakKb)) {
+                peakSessions = sessions;
+                peakBrowsers = roots.size();
+                peakKb = kb;
+                processes = count;
+            }
+        }
+    }
+
+    // Browser roots (no --type=) for those dirs, and a parent -> children index of every process
+    private static void scan(Set<String> dirs, Map<Integer, List<Integer>> children, List<Integer> roots) {
+        File[] entries = PROC.listFiles();
+        if (entries == null) return;
+        for (File e : entries) {
+            int pid;
+            try {
+                pid = Integer.parseInt(e.getName());
+            } catch (NumberFormatException notAPid) {
+                continue;
+            }
+            String stat = read(new File(e, "stat"));
+            if (stat == null) continue;
+            // pid (comm) state ppid ...; comm may contain spaces, so parse after the last ')'
+            String[] f = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            int ppid = Integer.parseInt(f[1]);
+            children.computeIfAbsent(ppid, k -> new ArrayList<>()).add(pid);
+
+            String cmdline = read(new File(e, "cmdline"));
+            if (cmdline == null || cmdline.contains("--type=")) continue;
+            for (String dir : dirs) {
+                if (cmdline.contains("--user-data-dir=" + dir)) {
+                    roots.add(pid);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static long memoryKb(int pid) {
+        long pss = field(new File(PROC, pid + "/smaps_rollup"), "Pss:");
+        return pss >= 0 ? pss : Math.max(0, field(new File(PROC, pid + "/status"), "VmRSS:"));
+    }
+
+    private static long field(File file, String name) {
+        String text = read(file);
+        if (text == null) return -1;
+        for (String line : text.split("\n")) {
+            if (line.startsWith(name)) {
+                return Long.parseLong(line.substring(name.length()).trim().split("\\s+")[0]);
+            }
+        }
+        return -1;
+    }
+
+    private static String read(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            // The process may have exited between listing and reading
+            return null;
+        }
+    }
+
+    // ---------- Report ----------
+
+    public synchronized String summary(String mode) {
+        if (!supported) return "Chrome memory: not measured (needs /proc)";
+        if (peakSessions == 0) return "Chrome memory: no sample taken";
+        return String.format("Chrome memory (%s): peak %d sessions in %d browser(s), %d processes, %d MB PSS, %d MB per session",
+                mode, peakSessions, peakBrowsers, processes, peakKb / 1024, peakKb / 1024 / peakSessions);
+    }
+
+    // Stores this run's peak under its mode and returns it with the latest peak of every mode
+    public synchronized String export(String mode) {
+        if (peakSessions == 0) return summary(mode);
+        Properties store = load();
+        store.setProperty(mode + ".sessions", String.valueOf(peakSessions));
+        store.setProperty(mode + ".browsers", String.valueOf(peakBrowsers));
+        store.setProperty(mode + ".kb", String.valueOf(peakKb));
+        save(store);
+
+        StringBuilder sb = new StringBuilder(summary(mode)).append('\n');
+        sb.append("Latest peak per pool mode (").append(STORE).append("):\n");
+        sb.append(String.format("%-10s %9s %9s %10s %12s%n", "mode", "sessions", "browsers", "total MB", "MB/session"));
+        for (String m : new String[]{"processes", "contexts"}) {
+            String sessions = store.getProperty(m + ".sessions");
+            if (sessions == null) continue;
+            long kb = Long.parseLong(store.getProperty(m + ".kb"));
+            int n = Integer.parseInt(sessions);
+            sb.append(String.format("%-10s %9d %9s %10d %12d%n", m, n, store.getProperty(m + ".browsers"),
+                    kb / 1024, kb / 1024 / n));
+        }
+        return sb.toString();
+    }
+
+    private static Properties load() {
+        Properties p = new Properties();
+        if (STORE.isFile()) {
+            try (InputStream in = new FileInputStream(STORE)) {
+                p.load(in);
+            } catch (IOException e) {
+                SuiteLog.info("Could not read " + STORE + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+
+    private static void save(Properties p) {
+        STORE.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(STORE)) {
+            p.store(out, "Peak Chrome memory (PSS, KB) per pool mode");
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + STORE + ": " + e.getMessage());
+        }
+    }
+}
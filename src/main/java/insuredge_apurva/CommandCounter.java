@@ -0,0 +1,48 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Counts the WebDriver commands issued through a decorated driver, for before/after comparisons
+ * of how many round-trips a check costs. Calls that only return a local helper object
+ * (manage(), switchTo(), window() ...) or are plain Object methods are not counted.
+ */
+public final class CommandCounter implements WebDriverListener {
+
+    private static final Set<String> LOCAL_CALLS = new HashSet<>(Arrays.asList(
+            "manage", "switchTo", "navigate", "window", "timeouts", "logs",
+            "getWrappedDriver", "getWrappedElement", "toString", "hashCode", "equals"));
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    // Returns a view of the driver whose commands are counted; the original stays uncounted
+    public static WebDriver counting(WebDriver driver, CommandCounter counter) {
+        return new EventFiringDecorator<>(counter).decorate(driver);
+    }
+
+    // True for calls answered locally, without a round-trip to the browser
+    static boolean isLocal(Method method) {
+        return LOCAL_CALLS.contains(method.getName());
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (!isLocal(method)) count.incrementAndGet();
+    }
+
+    public int count() {
+        return count.get();
+    }
+
+    public void reset() {
+        count.set(0);
+    }
+}
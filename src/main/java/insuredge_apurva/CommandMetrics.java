@@ -0,0 +1,278 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Latency of every WebDriver command issued through the pooled sessions.
+ *
+ * DriverPool decorates each session with this listener. Every command (findElement, click,
+ * getText, executeScript, the executeAsyncScript behind DomWait/PageSettle ...) is timed and
+ * recorded three ways: per command, per command and locator, and per command and test method.
+ * Elements remember the locator they were found with, so click()/getText() on them are attributed
+ * to it.
+ *
+ * Recording is a nanoTime pair, a few map lookups and LatencyHistogram.record(): no locks, and
+ * apart from the locator string of a findElement nothing is allocated once a command/locator pair
+ * has been seen. Disable with -Dmetrics.commands=false.
+ * DriverPoolListener prints the summary and writes test-output/command-metrics.json at suite end.
+ */
+public final class CommandMetrics implements WebDriverListener {
+
+    private static final CommandMetrics INSTANCE = new CommandMetrics();
+    private static final File JSON_FILE = new File("test-output", "command-metrics.json");
+    private static final int MAX_DEPTH = 32;
+    private static final int TOP = 10;
+    private static final String NO_TEST = "(outside tests)";
+    private static final String ASYNC_SCRIPT = "executeAsyncScript";
+
+    public static CommandMetrics get() {
+        return INSTANCE;
+    }
+
+    private final boolean enabled = !"false".equalsIgnoreCase(System.getProperty("metrics.commands"));
+
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byCommand = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Entry>> byLocator = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Entry>> byTest = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+
+    // Commands since the last window() call, for AdaptiveConcurrency. executeAsyncScript is left out:
+    // behind DomWait/PageSettle it mostly measures how long the page took, not the browser's latency
+    private final AtomicReference<LatencyHistogram> window = new AtomicReference<>(new LatencyHistogram());
+
+    private CommandMetrics() {
+    }
+
+    // The driver the pool hands out; the original stays reachable through WrapsDriver
+    public WebDriver decorate(WebDriver driver) {
+        return enabled ? new EventFiringDecorator<>(this).decorate(driver) : driver;
+    }
+
+    // Test method the current thread is running, bound by SuiteTimingListener before each invocation
+    public static void bindTest(String test) {
+        INSTANCE.state.get().test = test;
+    }
+
+    // ---------- Recording ----------
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (CommandCounter.isLocal(method)) return;
+        ThreadState s = state.get();
+        if (s.depth < MAX_DEPTH) s.starts[s.depth] = System.nanoTime();
+        s.depth++;
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        if (CommandCounter.isLocal(method)) return;
+        ThreadState s = state.get();
+        String locator = locator(s, target, args);
+        record(s, method, locator, false);
+        remember(s, locator, result);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        if (CommandCounter.isLocal(method)) return;
+        ThreadState s = state.get();
+        record(s, method, locator(s, target, args), true);
+    }
+
+    private void record(ThreadState s, Method method, String locator, boolean error) {
+        if (s.depth == 0) return;
+        s.depth--;
+        if (s.depth >= MAX_DEPTH) return;
+        long nanos = System.nanoTime() - s.starts[s.depth];
+
+        String command = name(method);
+        entry(byCommand, command).record(nanos, error);
+        if (locator != null) entry(nested(byLocator, locator), command).record(nanos, error);
+        entry(nested(byTest, s.test == null ? NO_TEST : s.test), command).record(nanos, error);
+        if (!ASYNC_SCRIPT.equals(command)) window.get().record(nanos);
+    }
+
+    // Latencies recorded since the previous call; starts a new window
+    public LatencyHistogram window() {
+        return window.getAndSet(new LatencyHistogram());
+    }
+
+    // Locator for findElement(s) calls and for commands on elements found through this driver
+    private static String locator(ThreadState s, Object target, Object[] args) {
+        String parent = target instanceof WebElement ? s.locators.get(target) : null;
+        if (args != null && args.length == 1 && args[0] instanceof By) {
+            String by = args[0].toString();
+            return parent == null ? by : parent + " > " + by;
+        }
+        return parent;
+    }
+
+    private static void remember(ThreadState s, String locator, Object result) {
+        if (locator == null) return;
+        if (result instanceof WebElement) {
+            s.locators.put(result, locator);
+        } else if (result instanceof List) {
+            for (Object o : (List<?>) result) {
+                if (o instanceof WebElement) s.locators.put(o, locator);
+            }
+        }
+    }
+
+    // "click", "getText" ... ; calls on WebDriver's helper interfaces read "Window.maximize" etc.
+    private String name(Method method) {
+        String name = names.get(method);
+        if (name == null) {
+            Class<?> owner = method.getDeclaringClass();
+            name = owner.getEnclosingClass() == WebDriver.class
+                    ? owner.getSimpleName() + "." + method.getName()
+                    : method.getName();
+            names.put(method, name);
+        }
+        return name;
+    }
+
+    private static Entry entry(Map<String, Entry> map, String key) {
+        Entry e = map.get(key);
+        return e != null ? e : map.computeIfAbsent(key, k -> new Entry());
+    }
+
+    private static Map<String, Entry> nested(Map<String, Map<String, Entry>> map, String key) {
+        Map<String, Entry> m = map.get(key);
+        return m != null ? m : map.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    // ---------- Export ----------
+
+    // Top commands, locators and tests by total time
+    public String summary() {
+        StringBuilder sb = new StringBuilder("WebDriver command latency\n");
+        sb.append(String.format("%-46s %7s %6s %9s %8s %8s %8s%n", "Command", "count", "errors", "total ms", "p50", "p95", "max"));
+        for (Map.Entry<String, Entry> e : sorted(byCommand, Integer.MAX_VALUE)) row(sb, e.getKey(), e.getValue());
+
+        sb.append(String.format("%nSlowest locators (top %d by total time)%n", TOP));
+        for (Map.Entry<String, Entry> e : sorted(flatten(byLocator), TOP)) row(sb, e.getKey(), e.getValue());
+
+        sb.append(String.format("%nTests spending most time in WebDriver (top %d)%n", TOP));
+        for (Map.Entry<String, Entry> e : sorted(totals(byTest), TOP)) row(sb, e.getKey(), e.getValue());
+        return sb.toString();
+    }
+
+    public void export() {
+        if (byCommand.isEmpty()) return;
+        SuiteLog.info(summary());
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("commands", toJson(byCommand));
+        Map<String, Object> locators = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Entry>> e : byLocator.entrySet()) locators.put(e.getKey(), toJson(e.getValue()));
+        json.put("locators", locators);
+        Map<String, Object> tests = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Entry>> e : byTest.entrySet()) tests.put(e.getKey(), toJson(e.getValue()));
+        json.put("tests", tests);
+
+        JSON_FILE.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(JSON_FILE, StandardCharsets.UTF_8.name())) {
+            out.print(new Json().toJson(json));
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + JSON_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toJson(Map<String, Entry> entries) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> e : sorted(entries, Integer.MAX_VALUE)) {
+            LatencyHistogram h = e.getValue().latency;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", h.count());
+            m.put("errors", e.getValue().errors.get());
+            m.put("totalMs", h.totalNanos() / 1e6);
+            m.put("meanMs", h.meanNanos() / 1e6);
+            m.put("p50Ms", h.percentileMillis(0.50));
+            m.put("p95Ms", h.percentileMillis(0.95));
+            m.put("p99Ms", h.percentileMillis(0.99));
+            m.put("maxMs", h.maxNanos() / 1e6);
+            out.put(e.getKey(), m);
+        }
+        return out;
+    }
+
+    private static void row(StringBuilder sb, String key, Entry e) {
+        LatencyHistogram h = e.latency;
+        if (key.length() > 46) key = "..." + key.substring(key.length() - 43);
+        sb.append(String.format("%-46s %7d %6d %9.0f %8.1f %8.1f %8.1f%n", key, h.count(), e.errors.get(),
+                h.totalNanos() / 1e6, h.percentileMillis(0.50), h.percentileMillis(0.95), h.maxNanos() / 1e6));
+    }
+
+    private static List<Map.Entry<String, Entry>> sorted(Map<String, Entry> map, int limit) {
+        List<Map.Entry<String, Entry>> list = new ArrayList<>(map.entrySet());
+        list.sort((a, b) -> Long.compare(b.getValue().latency.totalNanos(), a.getValue().latency.totalNanos()));
+        return list.size() > limit ? list.subList(0, limit) : list;
+    }
+
+    // "locator  command" rows
+    private static Map<String, Entry> flatten(Map<String, Map<String, Entry>> nested) {
+        Map<String, Entry> flat = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Entry>> outer : nested.entrySet()) {
+            for (Map.Entry<String, Entry> inner : outer.getValue().entrySet()) {
+                flat.put(inner.getKey() + " " + outer.getKey(), inner.getValue());
+            }
+        }
+        return flat;
+    }
+
+    // One row per outer key, all its commands merged
+    private static Map<String, Entry> totals(Map<String, Map<String, Entry>> nested) {
+        Map<String, Entry> totals = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Entry>> outer : nested.entrySet()) {
+            Entry sum = new Entry();
+            for (Entry e : outer.getValue().values()) {
+                sum.latency.add(e.latency);
+                sum.errors.addAndGet(e.errors.get());
+            }
+            totals.put(outer.getKey(), sum);
+        }
+        return totals;
+    }
+
+    // ---------- State ----------
+
+    private static final class Entry {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean error) {
+            latency.record(nanos);
+            if (error) errors.incrementAndGet();
+        }
+    }
+
+    // Per thread, so recording needs no locks: start-time stack, bound test, element -> locator
+    private static final class ThreadState {
+        final long[] starts = new long[MAX_DEPTH];
+        int depth;
+        String test;
+        final Map<Object, String> locators = new WeakHashMap<>();
+    }
+}
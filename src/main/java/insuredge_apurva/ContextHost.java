@@ -0,0 +1,128 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.bidi.browsingcontext.BrowsingContext;
+import org.openqa.selenium.bidi.browsingcontext.CreateContextParameters;
+import org.openqa.selenium.bidi.module.Browser;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * One Chrome per BrowserProfile that hands out isolated sessions for -Dpool.mode=contexts.
+ *
+ * The host session is started with WebDriver BiDi. Each open() creates a BiDi user context (its
+ * own cookie jar, local/session storage and cache, like a separate profile) with one window in it,
+ * then starts a second ChromeDriver session that attaches to the same Chrome through its
+ * debuggerAddress and switches to that window. Callers get an ordinary ChromeDriver, so pooled
+ * classes, DomWait, Actions and CDP calls work unchanged; only the renderer for the window is new,
+ * not a whole browser. All sessions of a host share one chromedriver process.
+ *
+ * A context starts logged out; DriverPool replays the suite's captured login into it through
+ * LoginStateCache exactly as for a fresh browser. close() detaches the session and removes the user
+ * context, which closes its windows and drops its storage.
+ */
+final class ContextHost {
+
+    private static final Map<BrowserProfile, ContextHost> HOSTS = new EnumMap<>(BrowserProfile.class);
+
+    static synchronized ContextHost of(BrowserProfile profile) {
+        ContextHost host = HOSTS.get(profile);
+        if (host == null) {
+            host = new ContextHost(profile);
+            HOSTS.put(profile, host);
+        }
+        return host;
+    }
+
+    static synchronized void shutdownAll() {
+        for (ContextHost host : HOSTS.values()) host.shutdown();
+        HOSTS.clear();
+    }
+
+    private final BrowserProfile profile;
+    private final ChromeDriverService service;
+    private final ChromeDriver host;
+    private final Browser browser;
+    private final String debuggerAddress;
+    private final String userDataDir;
+    private final Map<ChromeDriver, String> userContexts = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private ContextHost(BrowserProfile profile) {
+        this.profile = profile;
+        this.service = ChromeDriverService.createDefaultService();
+        ChromeOptions options = profile.options();
+        options.setCapability("webSocketUrl", true);
+        this.host = new ChromeDriver(service, options);
+        this.browser = new Browser(host);
+        Map<String, Object> chromeOptions = (Map<String, Object>) host.getCapabilities().getCapability("goog:chromeOptions");
+        this.debuggerAddress = String.valueOf(chromeOptions.get("debuggerAddress"));
+        Map<String, Object> chrome = (Map<String, Object>) host.getCapabilities().getCapability("chrome");
+        this.userDataDir = chrome == null ? null : (String) chrome.get("userDataDir");
+    }
+
+    // New user context with one window, and a session attached to that window
+    ChromeDriver open() {
+        String userContext;
+        String window;
+        // The host's BiDi connection is shared by every borrowing thread
+        synchronized (this) {
+            userContext = browser.createUserContext();
+            window = new BrowsingContext(host, new CreateContextParameters(WindowType.WINDOW).userContext(userContext)).getId();
+        }
+        ChromeOptions attach = new ChromeOptions();
+        attach.setExperimentalOption("debuggerAddress", debuggerAddress);
+        ChromeDriver driver = null;
+        try {
+            driver = new ChromeDriver(service, attach);
+            driver.switchTo().window(window);
+            profile.prepare(driver);
+        } catch (RuntimeException e) {
+            if (driver != null) {
+                try {
+                    driver.quit();
+                } catch (RuntimeException ignored) {}
+            }
+            removeQuietly(userContext);
+            throw e;
+        }
+        userContexts.put(driver, userContext);
+        return driver;
+    }
+
+    // Another tab in the same user context as that session (shares its login), returned as a window handle
+    String openTab(ChromeDriver driver) {
+        String userContext = userContexts.get(driver);
+        synchronized (this) {
+            return new BrowsingContext(host, new CreateContextParameters(WindowType.TAB).userContext(userContext)).getId();
+        }
+    }
+
+    // The session itself has been quit (detached) by the caller; this drops its context
+    void close(ChromeDriver driver) {
+        String userContext = userContexts.remove(driver);
+        if (userContext != null) removeQuietly(userContext);
+    }
+
+    String userDataDir() {
+        return userDataDir;
+    }
+
+    private synchronized void removeQuietly(String userContext) {
+        try {
+            browser.removeUserContext(userContext);
+        } catch (RuntimeException ignored) {}
+    }
+
+    private void shutdown() {
+        try {
+            host.quit();
+        } catch (RuntimeException ignored) {}
+        service.stop();
+    }
+}
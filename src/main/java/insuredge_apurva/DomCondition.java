@@ -0,0 +1,87 @@
+package insuredge_apurva;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * A wait condition evaluated inside the page by DomWait.
+ *
+ * The condition is a JavaScript function expression that returns a truthy value once it holds.
+ * Its arguments are referenced as $0, $1 ... in the source and are bound to the real script
+ * arguments when conditions are combined, so or/and/not compose without string escaping.
+ * Build instances through DomConditions.
+ */
+public final class DomCondition<T> {
+
+    private static final Pattern ARG = Pattern.compile("\\$(\\d+)");
+
+    private final String description;
+    private final String template;
+    private final List<Object> args;
+    private final boolean satisfiedWhenStale;
+    private final Function<Object, T> converter;
+    private final List<DomCondition<?>> parts;
+
+    DomCondition(String description, String template, List<Object> args, boolean satisfiedWhenStale,
+                 Function<Object, T> converter) {
+        this(description, template, args, satisfiedWhenStale, converter, Collections.<DomCondition<?>>emptyList());
+    }
+
+    // Composite: template uses #0, #1 ... for the rendered parts
+    DomCondition(String description, String template, boolean satisfiedWhenStale,
+                 Function<Object, T> converter, List<DomCondition<?>> parts) {
+        this(description, template, Collections.emptyList(), satisfiedWhenStale, converter, parts);
+    }
+
+    private DomCondition(String description, String template, List<Object> args, boolean satisfiedWhenStale,
+                         Function<Object, T> converter, List<DomCondition<?>> parts) {
+        this.description = description;
+        this.template = template;
+        this.args = Collections.unmodifiableList(new ArrayList<>(args));
+        this.satisfiedWhenStale = satisfiedWhenStale;
+        this.converter = converter;
+        this.parts = Collections.unmodifiableList(new ArrayList<>(parts));
+    }
+
+    // JS function source with $n replaced by A[offset + n]; appends this condition's args to out
+    String render(List<Object> out) {
+        if (parts.isEmpty()) {
+            int offset = out.size();
+            out.addAll(args);
+            Matcher m = ARG.matcher(template);
+            StringBuffer sb = new StringBuffer();
+            while (m.find()) {
+                m.appendReplacement(sb, "A[" + (offset + Integer.parseInt(m.group(1))) + "]");
+            }
+            m.appendTail(sb);
+            return sb.toString();
+        }
+
+        // Parts render in order (argument offsets), then substitute from the highest index so #1 can't eat #10
+        List<String> rendered = new ArrayList<>();
+        for (DomCondition<?> part : parts) rendered.add(part.render(out));
+        String source = template;
+        for (int i = rendered.size() - 1; i >= 0; i--) {
+            source = source.replace("#" + i, rendered.get(i));
+        }
+        return source;
+    }
+
+    // A condition on an element that went stale with the old document is met (e.g. stalenessOf)
+    boolean satisfiedWhenStale() {
+        return satisfiedWhenStale;
+    }
+
+    T convert(Object value) {
+        return converter.apply(value);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
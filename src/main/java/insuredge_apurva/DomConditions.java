@@ -0,0 +1,154 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * DomWait counterparts of the ExpectedConditions the suite uses, same names and arguments,
+ * so a wait.until(ExpectedConditions.x(..)) becomes domWait.until(DomConditions.x(..)).
+ *
+ * Each condition is evaluated in the page by the MutationObserver installed by DomWait.
+ * Templates may use the helpers DomWait defines: F(strategy, value) finds an element, V(e) is
+ * the visibility test and T(e) the whitespace-normalised text (as getText() would return it).
+ */
+public final class DomConditions {
+
+    private DomConditions() {
+    }
+
+    // ---------- Elements ----------
+
+    public static DomCondition<WebElement> presenceOfElementLocated(By locator) {
+        return element("presence of " + locator, "function(){return F($0,$1);}", locator);
+    }
+
+    public static DomCondition<WebElement> visibilityOfElementLocated(By locator) {
+        return element("visibility of " + locator, "function(){var e=F($0,$1);return e&&V(e)?e:null;}", locator);
+    }
+
+    public static DomCondition<WebElement> visibilityOf(WebElement element) {
+        return new DomCondition<>("visibility of " + element, "function(){return V($0)?$0:null;}",
+                Arrays.<Object>asList(element), false, v -> (WebElement) v);
+    }
+
+    public static DomCondition<WebElement> elementToBeClickable(By locator) {
+        return element("element to be clickable: " + locator,
+                "function(){var e=F($0,$1);return e&&V(e)&&!e.disabled?e:null;}", locator);
+    }
+
+    public static DomCondition<Boolean> invisibilityOfElementLocated(By locator) {
+        return bool("invisibility of " + locator, "function(){var e=F($0,$1);return !e||!V(e);}", false,
+                strategy(locator), value(locator));
+    }
+
+    public static DomCondition<Boolean> stalenessOf(WebElement element) {
+        return bool("staleness of " + element, "function(){return !$0.isConnected;}", true, element);
+    }
+
+    // ---------- Text and attributes ----------
+
+    public static DomCondition<Boolean> textToBe(By locator, String text) {
+        return bool("text ('" + text + "') to be in " + locator,
+                "function(){var e=F($0,$1);return !!e&&T(e)===$2;}", false, strategy(locator), value(locator), text);
+    }
+
+    public static DomCondition<Boolean> textToBePresentInElementLocated(By locator, String text) {
+        return bool("text ('" + text + "') to be present in " + locator,
+                "function(){var e=F($0,$1);return !!e&&T(e).indexOf($2)>=0;}", false,
+                strategy(locator), value(locator), text);
+    }
+
+    public static DomCondition<Boolean> textToBePresentInElement(WebElement element, String text) {
+        return bool("text ('" + text + "') to be present in " + element,
+                "function(){return $0.isConnected&&T($0).indexOf($1)>=0;}", false, element, text);
+    }
+
+    public static DomCondition<Boolean> attributeToBe(By locator, String attribute, String expected) {
+        return bool(attribute + " to be '" + expected + "' on " + locator,
+                "function(){var e=F($0,$1);if(!e)return false;var v=e.getAttribute($2);"
+                        + "if(v===null)v=window.getComputedStyle(e).getPropertyValue($2);return v===$3;}",
+                false, strategy(locator), value(locator), attribute, expected);
+    }
+
+    // ---------- Document ----------
+
+    public static DomCondition<Boolean> documentReady() {
+        return bool("document ready", "function(){return document.readyState==='complete';}", false);
+    }
+
+    // Custom predicate: the body of a JS function returning truthy once it holds, arguments as $0, $1 ...
+    public static DomCondition<Boolean> script(String description, String body, Object... args) {
+        return bool(description, "function(){" + body + "}", false, args);
+    }
+
+    // ---------- Combinators ----------
+
+    public static DomCondition<Boolean> not(DomCondition<?> condition) {
+        return new DomCondition<>("condition to not be valid: " + condition, "function(){return !(#0)();}",
+                !condition.satisfiedWhenStale(), DomConditions::truthy, parts(condition));
+    }
+
+    public static DomCondition<Boolean> or(DomCondition<?>... conditions) {
+        return combine("at least one condition to be valid: ", "||", conditions);
+    }
+
+    public static DomCondition<Boolean> and(DomCondition<?>... conditions) {
+        return combine("all conditions to be valid: ", "&&", conditions);
+    }
+
+    private static DomCondition<Boolean> combine(String prefix, String operator, DomCondition<?>... conditions) {
+        StringBuilder js = new StringBuilder("function(){return !!(");
+        boolean anyStale = false;
+        boolean allStale = true;
+        for (int i = 0; i < conditions.length; i++) {
+            if (i > 0) js.append(operator);
+            js.append("(#").append(i).append(")()");
+            anyStale |= conditions[i].satisfiedWhenStale();
+            allStale &= conditions[i].satisfiedWhenStale();
+        }
+        js.append(");}");
+        boolean stale = "||".equals(operator) ? anyStale : allStale;
+        return new DomCondition<>(prefix + Arrays.toString(conditions), js.toString(), stale,
+                DomConditions::truthy, parts(conditions));
+    }
+
+    // ---------- Helpers ----------
+
+    private static DomCondition<WebElement> element(String description, String template, By locator) {
+        return new DomCondition<>(description, template, Arrays.<Object>asList(strategy(locator), value(locator)),
+                false, v -> (WebElement) v);
+    }
+
+    private static DomCondition<Boolean> bool(String description, String template, boolean satisfiedWhenStale,
+                                              Object... args) {
+        return new DomCondition<>(description, template, Arrays.asList(args), satisfiedWhenStale,
+                DomConditions::truthy);
+    }
+
+    private static Boolean truthy(Object v) {
+        return v != null && !Boolean.FALSE.equals(v);
+    }
+
+    private static List<DomCondition<?>> parts(DomCondition<?>... conditions) {
+        return new ArrayList<>(Arrays.asList(conditions));
+    }
+
+    // By.toString() is "By.<strategy>: <value>" for every built-in locator
+    static String strategy(By locator) {
+        String s = locator.toString();
+        int colon = s.indexOf(':');
+        if (!s.startsWith("By.") || colon < 0) {
+            throw new IllegalArgumentException("DomWait cannot evaluate locator " + s);
+        }
+        return s.substring(3, colon);
+    }
+
+    static String value(By locator) {
+        String s = locator.toString();
+        return s.substring(s.indexOf(':') + 1).trim();
+    }
+}
@@ -0,0 +1,224 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Event-driven replacement for WebDriverWait.
+ *
+ * until() sends the condition to the page in a single executeAsyncScript call. The script checks
+ * it once, then re-checks on every DOM mutation and readyState change, and answers as soon as it
+ * holds or the timeout expires: no 500 ms polling interval and one round-trip per wait instead of
+ * one per poll. When a postback replaces the document mid-wait the script is aborted by the
+ * browser; it is then installed again on the new document until the deadline.
+ *
+ * Every wait is measured against what a 500 ms polling WebDriverWait would have taken for the
+ * same condition; DomWait.stats() holds the totals and is printed at the end of the suite.
+ */
+public final class DomWait {
+
+    // WebDriverWait's default polling interval, the baseline for the savings estimate
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    // Kept under the 30 s W3C default script timeout; longer waits just re-install the observer
+    private static final long SCRIPT_BUDGET_MS = 25_000;
+    private static final long REINSTALL_PAUSE_MS = 25;
+
+    private static final String CONDITION_MARKER = "/*CONDITION*/null";
+
+    // arguments[0]: condition arguments (A), arguments[1]: in-page budget in ms
+    static final String WAIT_JS =
+            "var A = arguments[0], budget = arguments[1], done = arguments[arguments.length - 1];"
+                    + "function T(e){return (e.innerText||e.textContent||'').replace(/\\s+/g,' ').trim();}"
+                    + "function V(e){if(!e.isConnected)return false;var s=window.getComputedStyle(e);"
+                    + "  return s.display!=='none'&&s.visibility!=='hidden'&&e.getClientRects().length>0;}"
+                    + "function F(s,v){"
+                    + "  switch(s){"
+                    + "    case 'id': return document.getElementById(v);"
+                    + "    case 'name': return document.getElementsByName(v)[0]||null;"
+                    + "    case 'className': return document.getElementsByClassName(v)[0]||null;"
+                    + "    case 'tagName': return document.getElementsByTagName(v)[0]||null;"
+                    + "    case 'cssSelector': return document.querySelector(v);"
+                    + "    case 'xpath': return document.evaluate(v,document,null,XPathResult.FIRST_ORDERED_NODE_TYPE,null).singleNodeValue;"
+                    + "    case 'linkText': case 'partialLinkText':"
+                    + "      var links=document.getElementsByTagName('a');"
+                    + "      for(var i=0;i<links.length;i++){var t=T(links[i]);if(s==='linkText'?t===v:t.indexOf(v)>=0)return links[i];}"
+                    + "      return null;"
+                    + "  }"
+                    + "  throw new Error('Unsupported locator strategy '+s);"
+                    + "}"
+                    + "var cond = " + CONDITION_MARKER + ";"
+                    + "var t0 = performance.now(), mutations = 0, finished = false, observer = null, timer = null;"
+                    + "function check(){var v=cond();return v?v:null;}"
+                    + "function finish(v, error){"
+                    + "  if(finished)return; finished=true;"
+                    + "  if(observer)observer.disconnect(); if(timer)clearTimeout(timer);"
+                    + "  document.removeEventListener('readystatechange', onChange, true);"
+                    + "  done({met: v!==null, value: v, error: error||null, atOnce: observer===null, inPageMs: performance.now()-t0, mutations: mutations});"
+                    + "}"
+                    + "function onChange(records){"
+                    + "  mutations += records && records.length ? records.length : 1;"
+                    + "  try { var v = check(); if (v !== null) finish(v); } catch (e) { finish(null, String(e)); }"
+                    + "}"
+                    + "try { var first = check(); } catch (e) { finish(null, String(e)); return; }"
+                    + "if (first !== null) { finish(first); return; }"
+                    + "observer = new MutationObserver(onChange);"
+                    + "observer.observe(document, {subtree: true, childList: true, characterData: true, attributes: true});"
+                    + "document.addEventListener('readystatechange', onChange, true);"
+                    + "timer = setTimeout(function(){ finish(null); }, budget);";
+
+    // ---------- Suite-wide measurements ----------
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong immediate = new AtomicLong();
+    private static final AtomicLong reinstalls = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    private static final AtomicLong savedNanos = new AtomicLong();
+    private static final AtomicLong roundTripsAvoided = new AtomicLong();
+    private static final LatencyHistogram waitLatency = new LatencyHistogram();
+    private static final LatencyHistogram savedLatency = new LatencyHistogram();
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    public DomWait(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    // Blocks until the condition holds and returns its value (element or TRUE), like WebDriverWait.until
+    @SuppressWarnings("unchecked")
+    public <T> T until(DomCondition<T> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        List<Object> args = new ArrayList<>();
+        String script = WAIT_JS.replace(CONDITION_MARKER, condition.render(args));
+
+        int installs = 0;
+        WebDriverException last = null;
+        while (true) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) break;
+
+            installs++;
+            long call = System.nanoTime();
+            Map<String, Object> result;
+            try {
+                result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                        .executeAsyncScript(script, args, Math.min(remainingMs, SCRIPT_BUDGET_MS));
+            } catch (StaleElementReferenceException e) {
+                // An element argument belongs to a document that is gone
+                if (condition.satisfiedWhenStale()) {
+                    record(start, call, 0, installs, false);
+                    return condition.convert(Boolean.TRUE);
+                }
+                last = e;
+                pause();
+                continue;
+            } catch (JavascriptException | ScriptTimeoutException e) {
+                // The document was replaced mid-wait (postback, navigation): observe the new one
+                last = e;
+                pause();
+                continue;
+            }
+
+            if (result.get("error") != null) {
+                throw new JavascriptException("DomWait condition '" + condition + "' failed: " + result.get("error"));
+            }
+            if (Boolean.TRUE.equals(result.get("met"))) {
+                long inPageNanos = (long) (((Number) result.get("inPageMs")).doubleValue() * 1e6);
+                record(start, call, inPageNanos, installs,
+                        Boolean.TRUE.equals(result.get("atOnce")));
+                return condition.convert(result.get("value"));
+            }
+        }
+
+        timeouts.incrementAndGet();
+        throw new TimeoutException(String.format(
+                "Expected condition failed: waiting for %s (tried for %d ms with a MutationObserver, %d install(s))",
+                condition, timeout.toMillis(), installs), last);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(REINSTALL_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting", e);
+        }
+    }
+
+    // ---------- Measurement ----------
+
+    // Estimates when the condition became true and what 500 ms polling would have cost for it
+    private static void record(long start, long lastCall, long inPageNanos, int installs, boolean atOnce) {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        long roundTrip = Math.max(0, (now - lastCall) - inPageNanos);
+        long metAt = Math.max(0, elapsed - roundTrip);
+
+        // WebDriverWait checks at once, then every 500 ms, each check one round-trip
+        long polls = metAt == 0 ? 0 : (metAt + POLL_NANOS - 1) / POLL_NANOS;
+        long pollingLatency = polls * POLL_NANOS + roundTrip;
+
+        waits.incrementAndGet();
+        if (atOnce) immediate.incrementAndGet();
+        if (installs > 1) reinstalls.addAndGet(installs - 1);
+        waitLatency.record(elapsed);
+        savedNanos.addAndGet(pollingLatency - elapsed);
+        savedLatency.record(pollingLatency - elapsed);
+        roundTripsAvoided.addAndGet(polls + 1 - installs);
+    }
+
+    public static Stats stats() {
+        LatencyHistogram waited = new LatencyHistogram();
+        waited.add(waitLatency);
+        LatencyHistogram saved = new LatencyHistogram();
+        saved.add(savedLatency);
+        return new Stats(waits.get(), immediate.get(), reinstalls.get(), timeouts.get(),
+                savedNanos.get(), roundTripsAvoided.get(), waited, saved);
+    }
+
+    public static final class Stats {
+        public final long waits;
+        public final long immediate;
+        public final long reinstalls;
+        public final long timeouts;
+        public final long savedNanos;
+        public final long roundTripsAvoided;
+        public final LatencyHistogram waitLatency;
+        public final LatencyHistogram savedPerWait;
+
+        Stats(long waits, long immediate, long reinstalls, long timeouts, long savedNanos,
+              long roundTripsAvoided, LatencyHistogram waitLatency, LatencyHistogram savedPerWait) {
+            this.waits = waits;
+            this.immediate = immediate;
+            this.reinstalls = reinstalls;
+            this.timeouts = timeouts;
+            this.savedNanos = savedNanos;
+            this.roundTripsAvoided = roundTripsAvoided;
+            this.waitLatency = waitLatency;
+            this.savedPerWait = savedPerWait;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "DomWait: waits=%d (met at once %d, re-installed %d, timeouts %d) | wait %s | "
+                            + "vs 500 ms polling: saved %d ms total, per wait %s, round-trips avoided=%d",
+                    waits, immediate, reinstalls, timeouts, waitLatency.summary(),
+                    TimeUnit.NANOSECONDS.toMillis(savedNanos), savedPerWait.summary(), roundTripsAvoided);
+        }
+    }
+}
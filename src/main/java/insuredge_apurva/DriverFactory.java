@@ -0,0 +1,87 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Thread-confined access to pooled sessions for parallel runs.
+ *
+ * With parallel="classes" TestNG runs every method of a class on the same worker thread, so each
+ * class calls start() in @BeforeClass and stop() in @AfterClass and the session never leaves that
+ * thread. The underlying browsers come from DriverPool and go back to it on stop().
+ *
+ * Classes whose steps StepScheduler runs on several threads (parallel="methods") may reach
+ * @AfterClass on another thread than @BeforeClass; they hand the session back with stop(driver).
+ * A session is released once however many threads still hold a stale reference to it. Listeners
+ * that need the session of a step running off the @BeforeClass thread find it with
+ * driverFor(testClass), kept for sessions started with start(Class).
+ */
+public final class DriverFactory {
+
+    private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<>();
+    private static final Set<WebDriver> LEASED = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static final Map<Class<?>, WebDriver> BY_CLASS = new ConcurrentHashMap<>();
+
+    private DriverFactory() {
+    }
+
+    // Binds a pooled session of the suite's BrowserProfile to the calling thread and returns it
+    public static WebDriver start() {
+        return start(BrowserProfile.suiteDefault());
+    }
+
+    // Binds a pooled session of the profile chosen for that class (see BrowserProfile)
+    public static WebDriver start(Class<?> testClass) {
+        WebDriver driver = start(BrowserProfile.forClass(testClass));
+        BY_CLASS.put(testClass, driver);
+        return driver;
+    }
+
+    public static WebDriver start(BrowserProfile profile) {
+        // A previous class on this thread must not leak its session into the next one
+        stop();
+        WebDriver driver = DriverPool.get().borrow(profile);
+        LEASED.add(driver);
+        DRIVER.set(driver);
+        return driver;
+    }
+
+    public static WebDriver driver() {
+        WebDriver driver = DRIVER.get();
+        if (driver == null || !LEASED.contains(driver)) {
+            throw new IllegalStateException("No WebDriver bound to " + Thread.currentThread().getName()
+                    + "; call DriverFactory.start() in @BeforeClass");
+        }
+        return driver;
+    }
+
+    public static boolean hasDriver() {
+        WebDriver driver = DRIVER.get();
+        return driver != null && LEASED.contains(driver);
+    }
+
+    // The session the class started, from any thread; null when it has none (or gave it back)
+    public static WebDriver driverFor(Class<?> testClass) {
+        WebDriver driver = BY_CLASS.get(testClass);
+        return driver != null && LEASED.contains(driver) ? driver : null;
+    }
+
+    // Hands the calling thread's session back to the pool
+    public static void stop() {
+        WebDriver driver = DRIVER.get();
+        DRIVER.remove();
+        stop(driver);
+    }
+
+    // Hands that session back to the pool, whichever thread started it
+    public static void stop(WebDriver driver) {
+        if (driver == DRIVER.get()) DRIVER.remove();
+        if (driver == null) return;
+        BY_CLASS.values().removeIf(driver::equals);
+        if (LEASED.remove(driver)) DriverPool.get().release(driver);
+    }
+}
@@ -0,0 +1,446 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Suite-scoped pool of logged-in Chrome sessions.
+ *
+ * Test classes borrow() a session in @BeforeClass and release() it in @AfterClass instead of
+ * launching their own ChromeDriver. Sessions are created with a BrowserProfile and only handed to
+ * borrowers asking for that profile; when the pool is full of the other profile, an idle session is
+ * swapped. New sessions get their login from LoginStateCache. A released session is reset (extra
+ * windows closed, window back to its profile's size, back on the post-login landing page) and
+ * health-checked again before it is handed out; a live browser whose login expired is logged back
+ * in rather than thrown away.
+ *
+ * -Dpool.mode=processes (default) starts one Chrome per session. -Dpool.mode=contexts gives each
+ * session its own BiDi user context inside one shared Chrome per profile (see ContextHost): same
+ * isolation of cookies and storage, a fraction of the memory. ChromeMemory measures both, every
+ * -Dpool.memorySampleSec (5) on a background thread and once more at shutdown, never on the
+ * borrow/release path.
+ *
+ * Size with -Dpool.size (default 6, one per class in testng-parallel.xml) and
+ * -Dpool.borrowTimeoutSec (default 120). While AdaptiveConcurrency manages the pool, a full pool is
+ * the controller's decision, so the timeout counts from the pool's last progress (a session handed
+ * out, released or evicted, or the limit changed) instead of from the start of the wait: a slow
+ * suite keeps queueing, a pool that is stuck, e.g. on a borrow nested inside the only session,
+ * still fails.
+ */
+public final class DriverPool {
+
+    private static final DriverPool INSTANCE = new DriverPool(
+            Integer.getInteger("pool.size", 6),
+            Long.getLong("pool.borrowTimeoutSec", 120));
+
+    public static DriverPool get() {
+        return INSTANCE;
+    }
+
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    // Sessions allowed open at once; AdaptiveConcurrency moves it at run time
+    private volatile int limit;
+    // Set while AdaptiveConcurrency owns the limit: a full pool is its decision, not a stuck suite
+    private volatile boolean managed;
+    // Last time a session was handed out or came back, or the limit moved (nanoTime)
+    private volatile long lastProgress = System.nanoTime();
+    private final long borrowTimeoutSec;
+    private final boolean contexts = "contexts".equalsIgnoreCase(System.getProperty("pool.mode"));
+
+    private final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+    private final Map<WebDriver, String> landingUrls = new ConcurrentHashMap<>();
+    // Every session this pool opened and has not closed yet, idle or leased
+    private final Map<WebDriver, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    // ---------- Stats ----------
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private DriverPool(int maxSize, long borrowTimeoutSec) {
+        if (maxSize < 1) throw new IllegalArgumentException("pool.size must be >= 1 but was " + maxSize);
+        this.limit = maxSize;
+        this.borrowTimeoutSec = borrowTimeoutSec;
+        long every = Long.getLong("pool.memorySampleSec", 5);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-memory");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleWithFixedDelay(this::sampleMemory, every, every, TimeUnit.SECONDS);
+    }
+
+    public WebDriver borrow() {
+        return borrow(BrowserProfile.suiteDefault());
+    }
+
+    // Returns a healthy, logged-in session of that profile sitting on the post-login landing page
+    public WebDriver borrow(BrowserProfile profile) {
+        if (profile == null) profile = BrowserProfile.suiteDefault();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(borrowTimeoutSec);
+        long waitStart = -1;
+
+        while (true) {
+            WebDriver driver = pollIdle(profile);
+            if (driver != null) {
+                if (isHealthy(driver)) {
+                    hits.incrementAndGet();
+                    return handOut(driver, waitStart);
+                }
+                evict(driver);
+                continue;
+            }
+
+            if (tryReserveSlot()) {
+                try {
+                    driver = newSession(profile);
+                } catch (RuntimeException e) {
+                    open.decrementAndGet();
+                    throw e;
+                }
+                misses.incrementAndGet();
+                return handOut(driver, waitStart);
+            }
+
+            // Full, but an idle session of the other profile can make room
+            if (evictIdleOtherThan(profile)) continue;
+
+            // Pool exhausted: block until another class releases its session or the limit is raised
+            long now = System.nanoTime();
+            if (waitStart < 0) waitStart = now;
+            boolean queued = managed;
+            long remaining = (queued ? lastProgress + TimeUnit.SECONDS.toNanos(borrowTimeoutSec) : deadline) - now;
+            if (remaining <= 0) {
+                throw new IllegalStateException(queued
+                        ? "The pool made no progress for " + borrowTimeoutSec + "s while managed (pool.size=" + limit
+                                + ", " + leased() + " leased; a borrow nested inside a leased session?)"
+                        : "No WebDriver session became available within " + borrowTimeoutSec + "s (pool.size=" + limit + ")");
+            }
+            try {
+                driver = idle.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a WebDriver session", e);
+            }
+
+            if (driver != null) {
+                if (profileOf(driver) == profile && isHealthy(driver)) {
+                    hits.incrementAndGet();
+                    return handOut(driver, waitStart);
+                }
+                // Broken, or the other profile: its slot goes to a new session on the next round
+                evict(driver);
+            }
+        }
+    }
+
+    private WebDriver handOut(WebDriver driver, long waitStart) {
+        lastProgress = System.nanoTime();
+        if (waitStart >= 0) recordWait(System.nanoTime() - waitStart);
+        return driver;
+    }
+
+    // Resets the session to a known state and puts it back; broken sessions are dropped
+    public void release(WebDriver driver) {
+        if (driver == null) return;
+        if (!sessions.containsKey(driver)) {
+            throw new IllegalArgumentException("Not a session of this pool (or evicted already): " + driver);
+        }
+        lastProgress = System.nanoTime();
+        try {
+            if (open.get() > limit) {
+                // The limit was lowered while this session was out: close it rather than keep it idle
+                evict(driver);
+                return;
+            }
+            reset(driver);
+            idle.offer(driver);
+        } catch (WebDriverException e) {
+            evict(driver);
+        }
+    }
+
+    // Quits every session, including any still leased (a class whose @AfterClass failed or was skipped)
+    public void shutdown() {
+        sampleMemory();
+        int leased = leased();
+        idle.clear();
+        List<WebDriver> all = new ArrayList<>(sessions.keySet());
+        for (WebDriver driver : all) {
+            close(driver);
+            landingUrls.remove(driver);
+            open.decrementAndGet();
+        }
+        if (leased > 0) SuiteLog.info("DriverPool: quit " + leased + " session(s) never released");
+        if (contexts) ContextHost.shutdownAll();
+    }
+
+    // Profile the session was created with (null for a session not from this pool)
+    public BrowserProfile profileOf(WebDriver driver) {
+        Session s = sessions.get(driver);
+        return s == null ? null : s.profile;
+    }
+
+    public String mode() {
+        return contexts ? "contexts" : "processes";
+    }
+
+    // Opens a tab that shares the session's login and switches to it; returns its window handle
+    public String openTab(WebDriver driver) {
+        Session s = sessions.get(driver);
+        if (s == null || s.host == null) {
+            driver.switchTo().newWindow(WindowType.TAB);
+            return driver.getWindowHandle();
+        }
+        // A plain new tab of an attached session would land in Chrome's default context, logged out
+        String handle = s.host.openTab(s.chrome);
+        driver.switchTo().window(handle);
+        return handle;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    // New limit on open sessions; surplus sessions close as they come back, idle ones right away
+    public void resize(int newLimit) {
+        if (newLimit < 1) throw new IllegalArgumentException("pool.size must be >= 1 but was " + newLimit);
+        limit = newLimit;
+        lastProgress = System.nanoTime();
+        while (open.get() > limit) {
+            WebDriver surplus = idle.poll();
+            if (surplus == null) break;
+            evict(surplus);
+        }
+    }
+
+    // While managed, borrow() waits as long as the pool keeps moving for the limit to make room
+    public void setManaged(boolean managed) {
+        lastProgress = System.nanoTime();
+        this.managed = managed;
+    }
+
+    // Sessions currently borrowed
+    public int leased() {
+        return Math.max(0, open.get() - idle.size());
+    }
+
+    public Stats stats() {
+        return new Stats(limit, open.get(), idle.size(), hits.get(), misses.get(), evictions.get(),
+                waits.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    // ---------- Session lifecycle ----------
+
+    private boolean tryReserveSlot() {
+        while (true) {
+            int current = open.get();
+            if (current >= limit) return false;
+            if (open.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    // Idle session of that profile, if any; remove() makes sure only one borrower gets it
+    private WebDriver pollIdle(BrowserProfile profile) {
+        for (WebDriver driver : idle) {
+            if (profileOf(driver) == profile && idle.remove(driver)) return driver;
+        }
+        return null;
+    }
+
+    private boolean evictIdleOtherThan(BrowserProfile profile) {
+        for (WebDriver driver : idle) {
+            if (profileOf(driver) != profile && idle.remove(driver)) {
+                evict(driver);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private WebDriver newSession(BrowserProfile profile) {
+        ContextHost host = contexts ? ContextHost.of(profile) : null;
+        ChromeDriver chrome;
+        if (host != null) {
+            chrome = host.open();
+        } else {
+            chrome = new ChromeDriver(profile.options());
+            try {
+                profile.prepare(chrome);
+            } catch (RuntimeException e) {
+                quitQuietly(chrome);
+                throw e;
+            }
+        }
+        // Every command of the session is timed by CommandMetrics, every page it leaves sampled by PageLoadStats
+        WebDriver driver = CommandMetrics.get().decorate(PageLoadStats.get().decorate(chrome, profile));
+        sessions.put(driver, new Session(profile, chrome, host, chrome.getWindowHandle()));
+        try {
+            landingUrls.put(driver, LoginStateCache.get().applyTo(driver));
+            return driver;
+        } catch (RuntimeException e) {
+            close(driver);
+            throw e;
+        }
+    }
+
+    private void reset(WebDriver driver) {
+        Session s = sessions.get(driver);
+        if (s == null) throw new IllegalArgumentException("Not a session of this pool: " + driver);
+        if (s.host == null) {
+            // Close any extra tabs/windows a class may have opened, keeping the one the session started with
+            Set<String> handles = driver.getWindowHandles();
+            if (!handles.contains(s.home)) {
+                throw new NoSuchWindowException("The session's original window " + s.home + " was closed");
+            }
+            for (String handle : handles) {
+                if (!handle.equals(s.home)) driver.switchTo().window(handle).close();
+            }
+            driver.switchTo().window(s.home);
+        } else {
+            // An attached session sees every context's windows, so only its own one is touched
+            driver.switchTo().window(s.home);
+        }
+
+        s.profile.resetWindow(driver);
+        driver.get(landingUrls.get(driver));
+    }
+
+    // Alive, page loaded and still logged in (an expired session lands on LoginPage without the sidebar)
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            Object state = ((JavascriptExecutor) driver).executeScript("return document.readyState");
+            if (!"complete".equals(state)) return false;
+            if (driver.findElements(Portal.sidebar).isEmpty()) {
+                landingUrls.put(driver, LoginStateCache.get().applyTo(driver));
+            }
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private void evict(WebDriver driver) {
+        evictions.incrementAndGet();
+        landingUrls.remove(driver);
+        open.decrementAndGet();
+        lastProgress = System.nanoTime();
+        close(driver);
+    }
+
+    // Quits the session; in contexts mode that only detaches it, so its user context goes too
+    private void close(WebDriver driver) {
+        Session s = sessions.remove(driver);
+        quitQuietly(driver);
+        if (s != null && s.host != null) s.host.close(s.chrome);
+    }
+
+    // Runs on the pool-memory thread (a /proc scan grows with the process count), and at shutdown
+    private void sampleMemory() {
+        try {
+            List<String> dirs = new ArrayList<>();
+            for (Session s : sessions.values()) dirs.add(s.host != null ? s.host.userDataDir() : s.userDataDir());
+            ChromeMemory.get().sample(dirs.size(), dirs);
+        } catch (RuntimeException e) {
+            // A session closing mid-sample; the next one will do
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waits.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (WebDriverException ignored) {}
+    }
+
+    // ---------- Sessions ----------
+
+    private static final class Session {
+        final BrowserProfile profile;
+        final ChromeDriver chrome;
+        final ContextHost host;
+        final String home;
+
+        Session(BrowserProfile profile, ChromeDriver chrome, ContextHost host, String home) {
+            this.profile = profile;
+            this.chrome = chrome;
+            this.host = host;
+            this.home = home;
+        }
+
+        @SuppressWarnings("unchecked")
+        String userDataDir() {
+            Object chromeCaps = chrome.getCapabilities().getCapability("chrome");
+            return chromeCaps instanceof Map ? (String) ((Map<String, Object>) chromeCaps).get("userDataDir") : null;
+        }
+    }
+
+    // ---------- Stats snapshot ----------
+
+    public static final class Stats {
+        public final int maxSize;
+        public final int open;
+        public final int idle;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long waits;
+        public final long totalWaitNanos;
+        public final long maxWaitNanos;
+
+        Stats(int maxSize, int open, int idle, long hits, long misses, long evictions,
+              long waits, long totalWaitNanos, long maxWaitNanos) {
+            this.maxSize = maxSize;
+            this.open = open;
+            this.idle = idle;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.waits = waits;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public double hitRate() {
+            long borrows = hits + misses;
+            return borrows == 0 ? 0 : (double) hits / borrows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "DriverPool: size=%d open=%d idle=%d | hits=%d misses=%d (hit rate %.0f%%) evictions=%d | "
+                            + "waits=%d total wait=%d ms max wait=%d ms",
+                    maxSize, open, idle, hits, misses, hitRate() * 100, evictions,
+                    waits, TimeUnit.NANOSECONDS.toMillis(totalWaitNanos), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package insuredge_apurva;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+// Binds the suite's browser profile, quits the pooled sessions once the suite is done, prints the
+// pool stats for sizing, the command latencies, Chrome's memory, the page loads per profile, how
+// pages were reached and their timings against budgets and earlier runs, and stops the portal stub
+// if the suite ran against it
+public class DriverPoolListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        BrowserProfile.bindSuite(suite.getParameter("browser.profile"));
+        PerfCapture.bindSuite(suite.getName(), suite.getParameter("perf.capture"));
+        SuiteLog.info("Browser profile for " + suite.getName() + ": " + BrowserProfile.suiteDefault().label());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DriverPool pool = DriverPool.get();
+        SuiteLog.info(pool.stats().toString());
+        CommandMetrics.get().export();
+        SuiteLog.info(ChromeMemory.get().export(pool.mode()));
+        // Quitting samples the page each session was last on
+        pool.shutdown();
+        PageLoadStats stats = PageLoadStats.get();
+        SuiteLog.info(stats.summary());
+        SuiteLog.info(stats.export());
+        SuiteLog.info(Navigator.summary());
+        SuiteLog.info(PerfCapture.get().export());
+        PortalStub.stopShared();
+    }
+}
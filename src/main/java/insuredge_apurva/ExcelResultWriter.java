@@ -0,0 +1,75 @@
+package insuredge_apurva;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ * Result workbook written with SXSSF: only the last WINDOW rows are kept in memory, older ones
+ * are flushed to a temp file, so hundreds of thousands of outcomes cost no more heap than ten.
+ * append() is synchronized so parallel data-provider invocations can share one writer.
+ */
+public final class ExcelResultWriter implements AutoCloseable {
+
+    private static final int WINDOW = 200;
+
+    private final File file;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(WINDOW);
+    private final Sheet sheet;
+    private int next;
+
+    public ExcelResultWriter(File file, String sheetName, String... headers) {
+        this.file = file;
+        this.sheet = workbook.createSheet(sheetName);
+        append((Object[]) headers);
+    }
+
+    public synchronized void append(Object... values) {
+        Row row = sheet.createRow(next++);
+        for (int i = 0; i < values.length; i++) {
+            Object v = values[i];
+            if (v instanceof Number) {
+                row.createCell(i).setCellValue(((Number) v).doubleValue());
+            } else if (v instanceof Boolean) {
+                row.createCell(i).setCellValue((Boolean) v);
+            } else {
+                row.createCell(i).setCellValue(v == null ? "" : String.valueOf(v));
+            }
+        }
+    }
+
+    // Data rows written so far
+    public synchronized int rows() {
+        return next - 1;
+    }
+
+    public File file() {
+        return file;
+    }
+
+    // Writes the workbook; closing it also deletes SXSSF's temp files
+    @Override
+    public synchronized void close() {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + file, e);
+        } finally {
+            discard();
+        }
+    }
+
+    // Drops the workbook without writing it
+    public synchronized void discard() {
+        try {
+            workbook.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,207 @@
+package insuredge_apurva;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * Rows of one XLSX sheet, read with POI's SAX (event) API on a background thread and handed over
+ * through a bounded queue, so memory stays flat whatever the size of the sheet: no XSSFWorkbook
+ * is ever built, and the reader blocks when the consumer falls behind.
+ *
+ * The first row holds the column names. With shards > 1 only data rows whose index modulo shards
+ * equals shard are returned, so several runs can split one sheet between them.
+ */
+public final class ExcelRowStream implements Iterator<ExcelRowStream.Row>, AutoCloseable {
+
+    private static final Object END = new Object();
+
+    private final File file;
+    private final BlockingQueue<Object> queue;
+    private final Thread reader;
+    private volatile List<String> headers = Collections.emptyList();
+    private volatile boolean closed;
+    private Object next;
+
+    // sheet null = first sheet; shard in [0, shards)
+    public ExcelRowStream(File file, String sheet, int shard, int shards, int capacity) {
+        if (shards < 1 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("shard must be in [0, " + shards + ") but was " + shard);
+        }
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.reader = new Thread(() -> read(sheet, shard, shards), "excel-rows-" + file.getName());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    // ---------- Iterator ----------
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = take();
+        if (next instanceof RuntimeException) throw (RuntimeException) next;
+        return next != END;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Row row = (Row) next;
+        next = null;
+        return row;
+    }
+
+    // Column names from the first row (available once the first data row has been returned)
+    public List<String> headers() {
+        return headers;
+    }
+
+    // Stops the reader thread if the consumer does not drain the sheet
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+    }
+
+    private Object take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading " + file, e);
+        }
+    }
+
+    // ---------- Reader thread ----------
+
+    private void read(String sheet, int shard, int shards) {
+        Object last = END;
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssf = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssf.getSheetsData();
+            boolean found = false;
+
+            while (sheets.hasNext() && !found) {
+                try (InputStream in = sheets.next()) {
+                    if (sheet != null && !sheet.equals(sheets.getSheetName())) continue;
+                    found = true;
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(xssf.getStylesTable(), null, strings,
+                            new Handler(shard, shards), new DataFormatter(Locale.ROOT), false));
+                    parser.parse(new InputSource(in));
+                }
+            }
+            if (!found) throw new IllegalArgumentException("No sheet '" + sheet + "' in " + file);
+        } catch (Stopped e) {
+            return;
+        } catch (RuntimeException e) {
+            last = e;
+        } catch (Exception e) {
+            last = new IllegalStateException("Could not read " + file, e);
+        }
+        try {
+            if (!closed) queue.put(last);
+        } catch (InterruptedException ignored) {
+            // closed by the consumer
+        }
+    }
+
+    private final class Handler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int shard;
+        private final int shards;
+        private final List<String> cells = new ArrayList<>();
+        private int dataRows;
+
+        Handler(int shard, int shards) {
+            this.shard = shard;
+            this.shards = shards;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < col) cells.add("");
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (headers.isEmpty()) {
+                headers = Collections.unmodifiableList(new ArrayList<>(cells));
+                return;
+            }
+            if (dataRows++ % shards != shard) return;
+            try {
+                queue.put(new Row(rowNum + 1, cells.toArray(new String[0])));
+            } catch (InterruptedException e) {
+                throw new Stopped();
+            }
+            if (closed) throw new Stopped();
+        }
+    }
+
+    // Unwinds the SAX parser once the consumer has closed the stream
+    private static final class Stopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Stopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    // ---------- Row ----------
+
+    public final class Row {
+        // 1-based row number as Excel shows it
+        public final int number;
+        private final String[] cells;
+
+        Row(int number, String[] cells) {
+            this.number = number;
+            this.cells = cells;
+        }
+
+        public String get(int column) {
+            return column < cells.length ? cells[column] : "";
+        }
+
+        // Cell under the given header (case-insensitive), "" when the column or the cell is missing
+        public String get(String header) {
+            for (int i = 0; i < headers.size(); i++) {
+                if (headers.get(i).equalsIgnoreCase(header)) return get(i);
+            }
+            return "";
+        }
+
+        @Override
+        public String toString() {
+            return "row " + number + " " + String.join(" | ", cells);
+        }
+    }
+}
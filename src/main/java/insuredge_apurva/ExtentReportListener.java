@@ -0,0 +1,474 @@
+package insuredge_apurva;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import org.openqa.selenium.json.Json;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * ExtentReports (Spark HTML) for the suite, built off the test threads.
+ *
+ * A finished test is turned into one TestEvent (timings, status, SuiteLog lines and attachments
+ * of that test) and offered to a lock-free queue bounded by a counter. A single daemon thread
+ * drains it into Extent and flushes the HTML every few seconds; test threads never wait for it.
+ * When the queue is full the event goes on an overflow queue instead (bounded too; a test thread
+ * that finds both full waits for the writer rather than drop its event), which the writer empties
+ * into a JSON-lines spill file before each event it renders (a line of JSON is far cheaper than an
+ * Extent entry) and replays once it has caught up; test threads never touch the file. Once a spill
+ * cannot be replayed, later overflow is rendered straight away instead, and what is left of the
+ * spill is flushed to disk and counted at suite end rather than dropped. The report is
+ * split into parts of report.partSize tests, each flushed and released before the next starts, so
+ * a 10k-row data-driven run keeps only one part in heap; test-output/extent/index.html links the
+ * parts. With -Dreport.json=true every part is also written as an Extent JSON archive
+ * (part-NNN.json), from which ShardPlanner builds one report of all its shards.
+ *
+ *   -Dreport.queue=2048  -Dreport.overflow=8192  -Dreport.partSize=1000  -Dreport.flushMs=5000
+ */
+public class ExtentReportListener implements ITestListener, ISuiteListener {
+
+    private static final File DIR = new File("test-output", "extent");
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    // SuiteLog lines and attachments of the test running on this thread (null outside a test)
+    private static final ThreadLocal<TestEvent> CURRENT = new ThreadLocal<>();
+
+    private final int capacity = Integer.getInteger("report.queue", 2048);
+    private final int overflowCapacity = Integer.getInteger("report.overflow", 8192);
+    private final int partSize = Integer.getInteger("report.partSize", 1000);
+    private final long flushNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("report.flushMs", 5000));
+    private final boolean json = Boolean.getBoolean("report.json");
+
+    private final ConcurrentLinkedQueue<TestEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentLinkedQueue<TestEvent> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowed = new AtomicInteger();
+    private final File spillFile = new File(DIR, "spill.jsonl");
+    private final File replayFile = new File(DIR, "spill-replay.jsonl");
+
+    private volatile boolean closed;
+    private Thread writer;
+
+    // Writer thread state
+    private Writer spill;
+    private long spilled;
+    private long spillPending;
+    // Set when a spill could not be replayed: the file stays on disk for the rest of the run
+    private boolean spillStuck;
+    // Events of a partly replayed spill-replay.jsonl that are not in the report
+    private long replayLeft;
+    // Spilled events found on disk after the writer closed the spill (set at the end of drain)
+    private long onDisk;
+    private final List<String> parts = new ArrayList<>();
+    private final List<Integer> partTests = new ArrayList<>();
+    private ExtentReports extent;
+    private int inPart;
+    private boolean dirty;
+    private long lastFlush;
+    private long written;
+    private int flushes;
+    private long slowestFlushNanos;
+
+    // ---------- Test thread API ----------
+
+    // Adds a line to the report of the test running on this thread (SuiteLog calls it)
+    public static void log(String line) {
+        TestEvent event = CURRENT.get();
+        if (event != null) event.logs.add(line);
+    }
+
+    // Attaches a file (screenshot, DOM dump, ...) to the test running on this thread
+    public static void attach(File file) {
+        TestEvent event = CURRENT.get();
+        if (event != null) event.attachments.add(file.getAbsolutePath());
+    }
+
+    // ---------- Listener ----------
+
+    @Override
+    public void onStart(ISuite suite) {
+        DIR.mkdirs();
+        // A spill of an earlier run would otherwise be replayed into this report
+        spillFile.delete();
+        replayFile.delete();
+        writer = new Thread(this::drain, "extent-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        CURRENT.set(new TestEvent());
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        finish(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        finish(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // A failed attempt that RetryAnalyzer runs again
+        finish(result, result.wasRetried() ? "RETRY" : "SKIP");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        finish(result, "WARNING");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        closed = true;
+        if (writer == null) return;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.MINUTES.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        SuiteLog.info(String.format("Extent report: %d tests in %d part(s), %d spilled to disk, %d flushes (slowest %d ms) -> %s",
+                written, parts.size(), spilled, flushes, TimeUnit.NANOSECONDS.toMillis(slowestFlushNanos),
+                new File(DIR, "index.html")));
+        if (spillPending > 0) {
+            SuiteLog.info("Extent report: " + spillPending + " spilled test(s) could not be replayed and are not in the report, "
+                    + onDisk + " of them on disk in " + (replayFile.isFile() ? replayFile + " and " : "") + spillFile);
+        }
+        if (spillPending > onDisk) {
+            SuiteLog.info("Extent report: " + (spillPending - onDisk) + " spilled test(s) did not reach the disk and are lost");
+        }
+    }
+
+    private void finish(ITestResult result, String status) {
+        TestEvent event = CURRENT.get();
+        CURRENT.remove();
+        if (event == null) event = new TestEvent();
+
+        event.testClass = result.getTestClass().getRealClass().getSimpleName();
+        event.name = result.getMethod().getMethodName() + params(result.getParameters());
+        event.description = result.getMethod().getDescription();
+        event.status = status;
+        event.start = result.getStartMillis();
+        event.end = result.getEndMillis();
+        event.thread = Thread.currentThread().getName();
+        if (result.getThrowable() != null) {
+            StringWriter sw = new StringWriter();
+            result.getThrowable().printStackTrace(new PrintWriter(sw));
+            event.error = sw.toString();
+        }
+        publish(event);
+    }
+
+    private void publish(TestEvent event) {
+        while (true) {
+            if (queued.incrementAndGet() <= capacity) {
+                queue.offer(event);
+                return;
+            }
+            queued.decrementAndGet();
+            // The writer moves it to the spill file before it renders anything else
+            if (overflowed.incrementAndGet() <= overflowCapacity || writer == null || !writer.isAlive()) {
+                overflow.offer(event);
+                return;
+            }
+            overflowed.decrementAndGet();
+            // Both full: wait for the writer rather than drop the event
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+    }
+
+    private static String params(Object[] parameters) {
+        if (parameters == null || parameters.length == 0) return "";
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) sb.append(", ");
+            String p = String.valueOf(parameters[i]);
+            sb.append(p.length() > 40 ? p.substring(0, 40) + "..." : p);
+        }
+        return sb.append(')').toString();
+    }
+
+    // ---------- Writer thread ----------
+
+    private void drain() {
+        lastFlush = System.nanoTime();
+        try {
+            while (true) {
+                spillOverflow();
+                TestEvent event = queue.poll();
+                if (event != null) {
+                    queued.decrementAndGet();
+                    write(event);
+                    continue;
+                }
+                if (replaySpill()) continue;
+                if (closed && overflow.isEmpty()) break;
+                if (dirty && System.nanoTime() - lastFlush >= flushNanos) flush();
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+            if (dirty || parts.isEmpty()) flush();
+            writeIndex();
+        } finally {
+            closeSpillQuietly();
+            onDisk = replayLeft + spilledOnDisk();
+        }
+    }
+
+    private void write(TestEvent e) {
+        if (extent == null) startPart();
+
+        ExtentTest test = extent.createTest(e.name, e.description);
+        test.assignCategory(e.testClass);
+        test.getModel().setStartTime(new Date(e.start));
+        test.getModel().setEndTime(new Date(e.end));
+        test.info("Thread " + e.thread);
+        for (String line : e.logs) test.info(line);
+        for (String path : e.attachments) {
+            if (path.matches("(?i).*\\.(png|jpe?g|gif)$")) {
+                test.info(new File(path).getName(), MediaEntityBuilder.createScreenCaptureFromPath(path).build());
+            } else {
+                test.info("<a href='file://" + path + "'>" + new File(path).getName() + "</a>");
+            }
+        }
+        switch (e.status) {
+            case "PASS":
+                test.pass("Passed");
+                break;
+            case "SKIP":
+                test.skip(e.error == null ? "Skipped" : "Skipped: " + firstLine(e.error));
+                break;
+            case "RETRY":
+                test.warning(MarkupHelper.createCodeBlock("Failed, retried in the same session\n"
+                        + (e.error == null ? "" : e.error)));
+                break;
+            case "WARNING":
+                test.warning("Failed within success percentage");
+                break;
+            default:
+                test.fail(MarkupHelper.createCodeBlock(e.error == null ? "Failed" : e.error));
+        }
+
+        written++;
+        dirty = true;
+        if (++inPart >= partSize) {
+            flush();
+            extent = null;
+        }
+    }
+
+    private void startPart() {
+        String name = String.format("part-%03d.html", parts.size() + 1);
+        ExtentSparkReporter spark = new ExtentSparkReporter(new File(DIR, name));
+        spark.config().setReportName("Insuredge suite, part " + (parts.size() + 1));
+        extent = new ExtentReports();
+        extent.attachReporter(spark);
+        if (json) extent.attachReporter(new JsonFormatter(new File(DIR, name.replace(".html", ".json"))));
+        parts.add(name);
+        partTests.add(0);
+        inPart = 0;
+    }
+
+    private void flush() {
+        if (extent == null) startPart();
+        long start = System.nanoTime();
+        extent.flush();
+        long took = System.nanoTime() - start;
+        slowestFlushNanos = Math.max(slowestFlushNanos, took);
+        flushes++;
+        partTests.set(parts.size() - 1, inPart);
+        dirty = false;
+        lastFlush = System.nanoTime();
+    }
+
+    // Appends the events that did not fit in the queue to the spill file; one that cannot be
+    // spilled, or arrives once the spill is stuck, goes straight into the report instead
+    private void spillOverflow() {
+        TestEvent event;
+        while ((event = overflow.poll()) != null) {
+            overflowed.decrementAndGet();
+            if (spillStuck) {
+                write(event);
+                continue;
+            }
+            try {
+                if (spill == null) {
+                    spill = Files.newBufferedWriter(spillFile.toPath(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spill.write(new Json().toJson(event.toMap()).replace('\n', ' '));
+                spill.write('\n');
+                spilled++;
+                spillPending++;
+            } catch (IOException e) {
+                SuiteLog.info("Could not spill report event for " + event.name + ", writing it now: " + e.getMessage());
+                write(event);
+            }
+        }
+    }
+
+    // Moves the spill file aside and replays it (new overflow goes to a fresh spill file meanwhile);
+    // false when there is nothing to replay. The count only drops for events that made it into the report.
+    @SuppressWarnings("unchecked")
+    private boolean replaySpill() {
+        if (spillPending == 0 || spillStuck) return false;
+        try {
+            closeSpill();
+            Files.move(spillFile.toPath(), replayFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            spillStuck = true;
+            SuiteLog.info("Could not replay " + spillFile + ", leaving it on disk: " + e.getMessage());
+            return false;
+        }
+        long moved = spillPending;
+        spillPending = 0;
+        long replayed = 0;
+        Json json = new Json();
+        try (BufferedReader in = Files.newBufferedReader(replayFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                write(TestEvent.fromMap(json.toType(line, Map.class)));
+                replayed++;
+                spillOverflow();
+            }
+        } catch (IOException | RuntimeException e) {
+            spillPending += moved - replayed;
+            replayLeft = moved - replayed;
+            spillStuck = true;
+            SuiteLog.info("Replay of " + replayFile + " stopped after " + replayed + " of " + moved + " events, leaving it on disk: "
+                    + e.getMessage());
+            return true;
+        }
+        if (!replayFile.delete()) SuiteLog.info("Could not delete " + replayFile);
+        return true;
+    }
+
+    // Flushes what is buffered for the spill file to disk
+    private void closeSpill() throws IOException {
+        Writer w = spill;
+        spill = null;
+        if (w != null) w.close();
+    }
+
+    private void closeSpillQuietly() {
+        try {
+            closeSpill();
+        } catch (IOException e) {
+            SuiteLog.info("Could not flush " + spillFile + ": " + e.getMessage());
+        }
+    }
+
+    // Lines in the spill file, i.e. spilled events that reached the disk and were never replayed
+    private long spilledOnDisk() {
+        if (!spillFile.isFile()) return 0;
+        try (BufferedReader in = Files.newBufferedReader(spillFile.toPath(), StandardCharsets.UTF_8)) {
+            long n = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty()) n++;
+            }
+            return n;
+        } catch (IOException e) {
+            SuiteLog.info("Could not count " + spillFile + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private void writeIndex() {
+        StringBuilder sb = new StringBuilder("<!DOCTYPE html><html><head><meta charset='utf-8'><title>Insuredge suite</title></head><body>");
+        sb.append("<h1>Insuredge suite</h1><p>").append(written).append(" tests</p><ul>");
+        for (int i = 0; i < parts.size(); i++) {
+            sb.append("<li><a href='").append(parts.get(i)).append("'>").append(parts.get(i)).append("</a> (")
+                    .append(partTests.get(i)).append(" tests)</li>");
+        }
+        sb.append("</ul></body></html>");
+        try {
+            Files.write(new File(DIR, "index.html").toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            SuiteLog.info("Could not write report index: " + e.getMessage());
+        }
+    }
+
+    private static String firstLine(String s) {
+        int nl = s.indexOf('\n');
+        return (nl < 0 ? s : s.substring(0, nl)).trim();
+    }
+
+    // ---------- Event ----------
+
+    static final class TestEvent {
+        String testClass;
+        String name;
+        String description;
+        String status;
+        String thread;
+        String error;
+        long start;
+        long end;
+        final List<String> logs = new ArrayList<>();
+        final List<String> attachments = new ArrayList<>();
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("testClass", testClass);
+            m.put("name", name);
+            m.put("description", description);
+            m.put("status", status);
+            m.put("thread", thread);
+            m.put("error", error);
+            m.put("start", start);
+            m.put("end", end);
+            m.put("logs", logs);
+            m.put("attachments", attachments);
+            return m;
+        }
+
+        @SuppressWarnings("unchecked")
+        static TestEvent fromMap(Map<String, Object> m) {
+            TestEvent e = new TestEvent();
+            e.testClass = (String) m.get("testClass");
+            e.name = (String) m.get("name");
+            e.description = (String) m.get("description");
+            e.status = (String) m.get("status");
+            e.thread = (String) m.get("thread");
+            e.error = (String) m.get("error");
+            e.start = ((Number) m.get("start")).longValue();
+            e.end = ((Number) m.get("end")).longValue();
+            e.logs.addAll((List<String>) m.get("logs"));
+            e.attachments.addAll((List<String>) m.get("attachments"));
+            return e;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * Screenshot and DOM of the browser at the moment a test fails, while the session still exists.
+ *
+ * The test thread only collects raw bytes (one screenshot call, one script for URL, title, the
+ * grids' outerHTML and the whole document) and queues them; a background thread encodes and
+ * writes test-output/failures/<Class.method>-<time>.zip and enforces the caps. If the queue is
+ * full the capture is dropped rather than making the test wait. The zip is attached to the
+ * test's Extent entry.
+ *
+ *   -Dartifacts.image=png|jpg        jpg re-encodes the screenshot (much smaller, lossy)
+ *   -Dartifacts.maxPerRun=50         captures per run, later failures get none
+ *   -Dartifacts.maxFiles=200 -Dartifacts.maxMb=200   retention of test-output/failures (oldest go)
+ *   -Dartifacts.maxHtmlKb=2048       page HTML beyond this is truncated
+ */
+public class FailureArtifacts implements IInvokedMethodListener, ISuiteListener {
+
+    private static final File DIR = new File("test-output", "failures");
+
+    // Returns {url, title, grids: {id: outerHTML}, html}
+    static final String CAPTURE_JS =
+            "var grids = {}, tables = document.querySelectorAll('table[id]');"
+                    + "for (var i = 0; i < tables.length; i++) {"
+                    + "  if (/_gv/.test(tables[i].id)) grids[tables[i].id] = tables[i].outerHTML;"
+                    + "}"
+                    + "return {url: location.href, title: document.title, grids: grids,"
+                    + "  html: document.documentElement ? document.documentElement.outerHTML : ''};";
+
+    private final String image = System.getProperty("artifacts.image", "png");
+    private final int maxPerRun = Integer.getInteger("artifacts.maxPerRun", 50);
+    private final int maxFiles = Integer.getInteger("artifacts.maxFiles", 200);
+    private final long maxBytes = Long.getLong("artifacts.maxMb", 200) * 1024 * 1024;
+    private final int maxHtmlChars = Integer.getInteger("artifacts.maxHtmlKb", 2048) * 1024;
+
+    private final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "failure-artifacts");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    private final AtomicInteger captured = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong slowestCaptureNanos = new AtomicLong();
+
+    @Override
+    public void onStart(ISuite suite) {
+        DIR.mkdirs();
+        prune();
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        // Runs before the ITestListeners, so the zip still makes it into the test's report entry
+        if (!method.isTestMethod() || result.getStatus() != ITestResult.FAILURE) return;
+        // parallel="methods" (testng-dag.xml) runs steps on other threads than the class's @BeforeClass
+        Class<?> testClass = result.getTestClass().getRealClass();
+        WebDriver driver = DriverFactory.hasDriver() ? DriverFactory.driver() : DriverFactory.driverFor(testClass);
+        if (driver == null) return;
+        if (captured.incrementAndGet() > maxPerRun) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        String test = testClass.getSimpleName() + "." + result.getMethod().getMethodName();
+        long start = System.nanoTime();
+        // Another step of the class may be driving the session by now; wait for its turn
+        ReentrantLock lock = StepScheduler.sessionLock(testClass);
+        if (lock != null) lock.lock();
+        Capture capture;
+        try {
+            capture = capture(driver, test, result.getThrowable());
+        } finally {
+            if (lock != null) lock.unlock();
+        }
+        long took = System.nanoTime() - start;
+        slowestCaptureNanos.accumulateAndGet(took, Math::max);
+
+        File zip = new File(DIR, test + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".zip");
+        try {
+            writer.execute(() -> write(zip, capture));
+            ExtentReportListener.attach(zip);
+            SuiteLog.info("Failure artifacts (" + TimeUnit.NANOSECONDS.toMillis(took) + " ms on the test thread) -> " + zip);
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            SuiteLog.info("Failure artifacts dropped for " + test + ": writer queue full");
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (captured.get() == 0) return;
+        SuiteLog.info(String.format("Failure artifacts: %d written (%d KB), %d dropped, slowest capture %d ms -> %s",
+                written.get(), bytes.get() / 1024, dropped.get(),
+                TimeUnit.NANOSECONDS.toMillis(slowestCaptureNanos.get()), DIR));
+    }
+
+    // ---------- Test thread ----------
+
+    @SuppressWarnings("unchecked")
+    private Capture capture(WebDriver driver, String test, Throwable error) {
+        Capture c = new Capture();
+        c.test = test;
+        if (error != null) {
+            StringWriter sw = new StringWriter();
+            error.printStackTrace(new PrintWriter(sw));
+            c.error = sw.toString();
+        }
+        // Each part on its own: a dead window must not cost the other one
+        try {
+            c.screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException e) {
+            c.problems.append("screenshot: ").append(e.getClass().getSimpleName()).append('\n');
+        }
+        try {
+            c.dom = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_JS);
+        } catch (RuntimeException e) {
+            c.problems.append("dom: ").append(e.getClass().getSimpleName()).append('\n');
+        }
+        return c;
+    }
+
+    // ---------- Writer thread ----------
+
+    @SuppressWarnings("unchecked")
+    private void write(File zip, Capture c) {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            StringBuilder info = new StringBuilder("test: ").append(c.test).append('\n');
+            if (c.screenshot != null) {
+                if ("jpg".equalsIgnoreCase(image)) {
+                    stored(out, "screenshot.jpg", jpeg(c.screenshot));
+                } else {
+                    // PNG is already deflated, a second pass only costs time (likewise JPEG above)
+                    stored(out, "screenshot.png", c.screenshot);
+                }
+            }
+            if (c.dom != null) {
+                info.append("url: ").append(c.dom.get("url")).append('\n')
+                        .append("title: ").append(c.dom.get("title")).append('\n');
+                Map<String, Object> grids = (Map<String, Object>) c.dom.get("grids");
+                if (grids != null) {
+                    for (Map.Entry<String, Object> g : grids.entrySet()) {
+                        deflated(out, "grid-" + g.getKey() + ".html", utf8(String.valueOf(g.getValue())));
+                    }
+                }
+                String html = String.valueOf(c.dom.get("html"));
+                if (html.length() > maxHtmlChars) {
+                    info.append("page.html truncated from ").append(html.length()).append(" chars\n");
+                    html = html.substring(0, maxHtmlChars);
+                }
+                deflated(out, "page.html", utf8(html));
+            }
+            info.append(c.problems);
+            if (c.error != null) info.append('\n').append(c.error);
+            deflated(out, "info.txt", utf8(info.toString()));
+        } catch (IOException | RuntimeException e) {
+            SuiteLog.info("Could not write " + zip + ": " + e);
+            zip.delete();
+            return;
+        }
+        written.incrementAndGet();
+        bytes.addAndGet(zip.length());
+        prune();
+    }
+
+    private static void deflated(ZipOutputStream out, String name, byte[] data) throws IOException {
+        out.setMethod(ZipOutputStream.DEFLATED);
+        out.putNextEntry(new ZipEntry(name));
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private static void stored(ZipOutputStream out, String name, byte[] data) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCompressedSize(data.length);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private static byte[] jpeg(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) return png;
+        // JPEG has no alpha channel
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(source, 0, 0, null);
+
+        ImageWriter jpg = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = jpg.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.8f);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(bytes)) {
+            jpg.setOutput(ios);
+            jpg.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            jpg.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Deletes the oldest zips until both the file count and the size cap hold
+    private void prune() {
+        File[] zips = DIR.listFiles((d, name) -> name.endsWith(".zip"));
+        if (zips == null) return;
+        Arrays.sort(zips, Comparator.comparingLong(File::lastModified));
+        long total = 0;
+        for (File f : zips) total += f.length();
+        int count = zips.length;
+        for (File f : zips) {
+            if (count <= maxFiles && total <= maxBytes) break;
+            long size = f.length();
+            if (f.delete()) {
+                count--;
+                total -= size;
+            }
+        }
+    }
+
+    private static final class Capture {
+        String test;
+        String error;
+        byte[] screenshot;
+        Map<String, Object> dom;
+        final StringBuilder problems = new StringBuilder();
+    }
+}
@@ -0,0 +1,287 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Walks every page of a GridView through its ASP.NET postback pager, "..." page-group links
+ * included, and streams each page's rows through invariant checks.
+ *
+ * Each page is read with one GridSnapshot and dropped as soon as it is checked, so memory stays
+ * constant whatever the number of pages. Page ranges can be split across several pooled sessions;
+ * each session hops to its first page through the group links and then walks its range.
+ *
+ * Besides the row checks every page is verified for pager consistency: the active page is the one
+ * requested, visible page labels are sequential, and every page but the last is full.
+ */
+public final class GridCrawler {
+
+    // Returns null when the row is fine, otherwise a short description of the violation
+    public interface RowCheck {
+        String check(int page, GridSnapshot.Row row);
+    }
+
+    public static RowCheck columnEquals(final String header, final String expected) {
+        return (page, row) -> expected.equals(row.get(header))
+                ? null
+                : header + " is '" + row.get(header) + "' instead of '" + expected + "'";
+    }
+
+    private static final int MAX_EXAMPLES = 20;
+
+    private final String gridId;
+    private final List<RowCheck> checks;
+    private final Duration pageTimeout;
+
+    public GridCrawler(String gridId, List<RowCheck> checks, Duration pageTimeout) {
+        this.gridId = gridId;
+        this.checks = Collections.unmodifiableList(new ArrayList<>(checks));
+        this.pageTimeout = pageTimeout;
+    }
+
+    String gridId() {
+        return gridId;
+    }
+
+    // Crawls every page, using the given session plus (sessions - 1) more from the DriverPool
+    public Report crawl(WebDriver driver, int sessions) {
+        String startUrl = driver.getCurrentUrl();
+        Report report = new Report();
+        long start = System.nanoTime();
+
+        if (sessions <= 1) {
+            walk(driver, 1, Integer.MAX_VALUE, -1, report);
+        } else {
+            int pageCount = probePageCount(driver);
+            int pageSize = GridSnapshot.capture(reload(driver, startUrl), gridId).rowCount();
+            report.pageCount.set(pageCount);
+            crawlInParallel(driver, startUrl, Math.min(sessions, pageCount), pageCount, pageSize, report);
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void crawlInParallel(WebDriver driver, String startUrl, int sessions, int pageCount,
+                                 int pageSize, Report report) {
+        int chunk = (pageCount + sessions - 1) / sessions;
+        ExecutorService executor = Executors.newFixedThreadPool(sessions);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < sessions; i++) {
+            final int from = i * chunk + 1;
+            final int to = Math.min(pageCount, (i + 1) * chunk);
+            final boolean own = i == 0;
+            if (from > to) break;
+            futures.add(executor.submit(() -> {
+                WebDriver worker = own ? driver : DriverPool.get().borrow(DriverPool.get().profileOf(driver));
+                try {
+                    reload(worker, startUrl);
+                    walk(worker, from, to, pageSize, report);
+                } finally {
+                    if (!own) DriverPool.get().release(worker);
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while crawling " + gridId, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Crawler session failed on " + gridId, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ---------- Walking ----------
+
+    // Checks pages from..to (to = MAX_VALUE walks until the last page); pageSize -1 = learn it from the first page
+    private void walk(WebDriver driver, int from, int to, int pageSize, Report report) {
+        GridSnapshot page = snapshot(driver);
+        page = hopTo(driver, page, from);
+
+        int expected = from;
+        while (true) {
+            if (pageSize < 0) pageSize = page.rowCount();
+            GridSnapshot.PagerItem next = page.linkTo(expected + 1);
+            boolean last = next == null;
+
+            checkPage(expected, page, pageSize, last, report);
+            if (last) {
+                report.pageCount.accumulateAndGet(expected, Math::max);
+                return;
+            }
+            if (expected >= to) return;
+
+            page = postBack(driver, next, expected + 1, report);
+            expected++;
+        }
+    }
+
+    // The given page in the browser, reached through the pager from whichever page is showing
+    GridSnapshot open(WebDriver driver, int page) {
+        return hopTo(driver, snapshot(driver), page);
+    }
+
+    // Moves to the target page, jumping whole page groups through the "..." links when needed
+    private GridSnapshot hopTo(WebDriver driver, GridSnapshot page, int target) {
+        while (page.activePage() != target) {
+            GridSnapshot.PagerItem link = page.linkTo(target);
+            if (link == null) link = groupLinkToward(page, target);
+            if (link == null) {
+                throw new IllegalStateException("Page " + target + " is not reachable from " + page);
+            }
+            page = postBack(driver, link, link.page(), null);
+        }
+        return page;
+    }
+
+    // Last page, found by following the forward "..." links to the final page group
+    private int probePageCount(WebDriver driver) {
+        GridSnapshot page = snapshot(driver);
+        GridSnapshot.PagerItem forward;
+        while ((forward = groupLinkToward(page, Integer.MAX_VALUE)) != null) {
+            page = postBack(driver, forward, forward.page(), null);
+        }
+        List<Integer> nums = page.pageNumbers();
+        return nums.isEmpty() ? 1 : nums.get(nums.size() - 1);
+    }
+
+    static GridSnapshot.PagerItem groupLinkToward(GridSnapshot page, int target) {
+        GridSnapshot.PagerItem best = null;
+        for (GridSnapshot.PagerItem item : page.pager()) {
+            if (!item.link || item.isNumeric()) continue;
+            boolean forward = item.page() > page.activePage();
+            if (forward == (target > page.activePage())) best = item;
+        }
+        return best;
+    }
+
+    private GridSnapshot postBack(WebDriver driver, GridSnapshot.PagerItem link, int expectedPage, Report report) {
+        long start = System.nanoTime();
+        ((JavascriptExecutor) driver).executeScript("__doPostBack(arguments[0], arguments[1]);", link.target, link.argument);
+        GridSnapshot page = new WebDriverWait(driver, pageTimeout)
+                .ignoring(WebDriverException.class)
+                .until(d -> {
+                    GridSnapshot s = GridSnapshot.capture(d, gridId);
+                    return s != null && s.activePage() == expectedPage ? s : null;
+                });
+        if (report != null) report.pageLatency.record(System.nanoTime() - start);
+        PerfCapture.capture(driver);
+        return page;
+    }
+
+    private GridSnapshot snapshot(WebDriver driver) {
+        return new WebDriverWait(driver, pageTimeout).until(d -> GridSnapshot.capture(d, gridId));
+    }
+
+    private static WebDriver reload(WebDriver driver, String url) {
+        driver.get(url);
+        return driver;
+    }
+
+    // ---------- Invariants ----------
+
+    // Also used by HttpGridCrawler, so both tiers check pages the same way
+    void checkPage(int expected, GridSnapshot page, int pageSize, boolean last, Report report) {
+        report.pages.incrementAndGet();
+
+        if (page.activePage() != expected) {
+            report.violation(expected, -1, "active page is " + page.activePage());
+        }
+        List<Integer> nums = page.pageNumbers();
+        for (int i = 1; i < nums.size(); i++) {
+            if (nums.get(i) != nums.get(i - 1) + 1) {
+                report.violation(expected, -1, "page labels not sequential: " + nums);
+                break;
+            }
+        }
+        if (!last && page.rowCount() != pageSize) {
+            report.violation(expected, -1, "has " + page.rowCount() + " rows, expected " + pageSize);
+        }
+        if (page.rowCount() == 0) {
+            report.violation(expected, -1, "is empty");
+        }
+
+        for (GridSnapshot.Row row : page.rows()) {
+            report.rows.incrementAndGet();
+            for (RowCheck check : checks) {
+                String problem = check.check(expected, row);
+                if (problem != null) report.violation(expected, row.index(), problem);
+            }
+        }
+    }
+
+    // ---------- Result ----------
+
+    public static final class Report {
+        final AtomicInteger pages = new AtomicInteger();
+        final AtomicInteger pageCount = new AtomicInteger();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong violations = new AtomicLong();
+        final ConcurrentLinkedQueue<String> examples = new ConcurrentLinkedQueue<>();
+        final LatencyHistogram pageLatency = new LatencyHistogram();
+        volatile long elapsedNanos;
+
+        void violation(int page, int row, String problem) {
+            // Only the first few are kept so a broken dataset can't blow up memory
+            if (violations.incrementAndGet() <= MAX_EXAMPLES) {
+                examples.add("page " + page + (row >= 0 ? " row " + (row + 1) : "") + ": " + problem);
+            }
+        }
+
+        public int pagesVisited() {
+            return pages.get();
+        }
+
+        public int pageCount() {
+            return pageCount.get();
+        }
+
+        public long rows() {
+            return rows.get();
+        }
+
+        public long violations() {
+            return violations.get();
+        }
+
+        public List<String> examples() {
+            return new ArrayList<>(examples);
+        }
+
+        public LatencyHistogram pageLatency() {
+            return pageLatency;
+        }
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows.get() / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d pages, %d rows in %d ms (%.0f rows/s), %d violations | page latency %s",
+                    pagesVisited(), pageCount(), rows(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    rowsPerSecond(), violations(), pageLatency.summary());
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * The visible page of an ASP.NET GridView (gvRejectedHolders / gvPendingHolders), read in one
+ * executeScript call: header names, every data row, the pager items and the active page.
+ *
+ * Cells are stored column by column (one String[] per header), rows are cheap views over those
+ * columns, and two snapshots can be diffed locally, so "page changed" / "status unchanged" checks
+ * no longer need a getText() round-trip per cell.
+ */
+public final class GridSnapshot {
+
+    public static final String REJECTED_GRID = "ContentPlaceHolder_Admin_gvRejectedHolders";
+
+    // Column headers as the portal renders them
+    public static final String CUSTOMER_NAME = "Customer Name";
+    public static final String MOBILE_NUMBER = "Mobile Number";
+    public static final String EMAIL = "Email";
+    public static final String POLICY_NAME = "Policy Name";
+    public static final String SUM_ASSURED = "Sum Assured";
+    public static final String PREMIUM = "Premium";
+    public static final String STATUS = "Status";
+
+    // arguments[0]: grid id, or null for the grid that owns the first td[@colspan] pager
+    static final String CAPTURE_JS =
+            "function norm(e){return (e.textContent||'').replace(/\\s+/g,' ').trim();}"
+                    + "var table = null;"
+                    + "if (arguments[0]) { table = document.getElementById(arguments[0]); }"
+                    + "else { var tds = document.querySelectorAll('td[colspan]');"
+                    + "  for (var i = 0; i < tds.length && !table; i++) if (tds[i].querySelector('table')) table = tds[i].closest('table'); }"
+                    + "if (!table) return null;"
+                    + "var headers = [], cols = [], pager = null, pagerShown = false, rows = table.rows;"
+                    + "for (var r = 0; r < rows.length; r++) {"
+                    + "  var cells = rows[r].cells;"
+                    + "  if (cells.length && cells[0].tagName === 'TH') {"
+                    + "    for (var c = 0; c < cells.length; c++) { headers.push(norm(cells[c])); cols.push([]); }"
+                    + "  } else if (cells.length === 1 && cells[0].colSpan > 1) {"
+                    + "    var box = cells[0].getBoundingClientRect();"
+                    + "    pagerShown = box.width > 0 && box.height > 0;"
+                    + "    pager = [];"
+                    + "    var items = cells[0].querySelectorAll('td');"
+                    + "    for (var p = 0; p < items.length; p++) {"
+                    + "      var a = items[p].querySelector('a'), href = a ? (a.getAttribute('href') || '') : '';"
+                    + "      var m = href.match(/__doPostBack\\('([^']*)','([^']*)'\\)/);"
+                    + "      pager.push({label: norm(items[p]), link: !!a, target: m ? m[1] : null, argument: m ? m[2] : null});"
+                    + "    }"
+                    + "  } else if (cols.length && cells.length === cols.length) {"
+                    + "    for (var c = 0; c < cells.length; c++) cols[c].push(norm(cells[c]));"
+                    + "  }"
+                    + "}"
+                    + "return {id: table.id, headers: headers, columns: cols, pager: pager, pagerShown: pagerShown};";
+
+    private final String gridId;
+    private final List<String> headers;
+    private final String[][] columns;
+    private final int rowCount;
+    private final List<PagerItem> pager;
+    private final boolean pagerDisplayed;
+    private final int activePage;
+
+    private GridSnapshot(String gridId, List<String> headers, String[][] columns,
+                         List<PagerItem> pager, boolean pagerDisplayed) {
+        this.gridId = gridId;
+        this.headers = Collections.unmodifiableList(headers);
+        this.columns = columns;
+        this.rowCount = columns.length == 0 ? 0 : columns[0].length;
+        this.pager = Collections.unmodifiableList(pager);
+        this.pagerDisplayed = pagerDisplayed;
+
+        int active = -1;
+        for (PagerItem item : pager) {
+            if (item.isActive()) active = item.page();
+        }
+        this.activePage = active;
+    }
+
+    // Snapshot of the grid with this id, or null while it is not in the DOM (usable in wait.until)
+    public static GridSnapshot capture(WebDriver driver, String gridId) {
+        return fromScript(((JavascriptExecutor) driver).executeScript(CAPTURE_JS, gridId));
+    }
+
+    // Snapshot of whichever grid carries the td[@colspan] pager on the current page
+    public static GridSnapshot ofPagedGrid(WebDriver driver) {
+        return capture(driver, null);
+    }
+
+    // Same snapshot from a page parsed outside the browser (PortalHttp); a pager that is there counts as shown
+    static GridSnapshot parsed(String gridId, List<String> headers, List<List<String>> columns, List<PagerItem> pager) {
+        String[][] cols = new String[columns.size()][];
+        for (int c = 0; c < cols.length; c++) cols[c] = columns.get(c).toArray(new String[0]);
+        return new GridSnapshot(gridId, new ArrayList<>(headers), cols, new ArrayList<>(pager), !pager.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    static GridSnapshot fromScript(Object raw) {
+        if (raw == null) return null;
+        Map<String, Object> m = (Map<String, Object>) raw;
+
+        List<String> headers = new ArrayList<>();
+        for (Object h : (List<Object>) m.get("headers")) headers.add(String.valueOf(h));
+
+        List<Object> rawColumns = (List<Object>) m.get("columns");
+        String[][] columns = new String[rawColumns.size()][];
+        for (int c = 0; c < columns.length; c++) {
+            List<Object> values = (List<Object>) rawColumns.get(c);
+            columns[c] = values.toArray(new String[0]);
+        }
+
+        List<PagerItem> pager = new ArrayList<>();
+        if (m.get("pager") != null) {
+            for (Object o : (List<Object>) m.get("pager")) {
+                Map<String, Object> p = (Map<String, Object>) o;
+                pager.add(new PagerItem((String) p.get("label"), Boolean.TRUE.equals(p.get("link")),
+                        (String) p.get("target"), (String) p.get("argument")));
+            }
+        }
+        return new GridSnapshot((String) m.get("id"), headers, columns, pager, Boolean.TRUE.equals(m.get("pagerShown")));
+    }
+
+    // ---------- Grid content ----------
+
+    public String gridId() {
+        return gridId;
+    }
+
+    public List<String> headers() {
+        return headers;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnIndex(String header) {
+        int i = headers.indexOf(header);
+        if (i < 0) throw new IllegalArgumentException("No column '" + header + "' in " + headers);
+        return i;
+    }
+
+    public String cell(int row, String header) {
+        return columns[columnIndex(header)][row];
+    }
+
+    // Read-only view of one column, top to bottom
+    public List<String> column(String header) {
+        return Collections.unmodifiableList(Arrays.asList(columns[columnIndex(header)]));
+    }
+
+    public Row row(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + rowCount);
+        }
+        return new Row(index);
+    }
+
+    public List<Row> rows() {
+        return new AbstractList<Row>() {
+            @Override
+            public Row get(int index) {
+                return row(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    // ---------- Pager ----------
+
+    public boolean hasPager() {
+        return !pager.isEmpty();
+    }
+
+    public boolean isPagerDisplayed() {
+        return pagerDisplayed;
+    }
+
+    public List<PagerItem> pager() {
+        return pager;
+    }
+
+    // Page currently shown (the non-link item of the pager), or -1 when there is no pager
+    public int activePage() {
+        return activePage;
+    }
+
+    // Numeric page labels in display order ("..." group links excluded)
+    public List<Integer> pageNumbers() {
+        List<Integer> nums = new ArrayList<>();
+        for (PagerItem item : pager) {
+            if (item.isNumeric()) nums.add(item.page());
+        }
+        return nums;
+    }
+
+    // Pager link that goes to the given page, or null if it is not rendered in the current group
+    public PagerItem linkTo(int page) {
+        for (PagerItem item : pager) {
+            if (item.link && item.page() == page) return item;
+        }
+        return null;
+    }
+
+    // ---------- Diff ----------
+
+    public Diff diff(GridSnapshot after) {
+        Set<String> changedColumns = new LinkedHashSet<>();
+        List<Integer> changedRows = new ArrayList<>();
+        int rows = Math.max(rowCount, after.rowCount);
+
+        for (int r = 0; r < rows; r++) {
+            boolean rowChanged = r >= rowCount || r >= after.rowCount;
+            for (String header : headers) {
+                int ai = after.headers.indexOf(header);
+                String before = r < rowCount ? columns[headers.indexOf(header)][r] : null;
+                String now = ai >= 0 && r < after.rowCount ? after.columns[ai][r] : null;
+                if (before == null ? now != null : !before.equals(now)) {
+                    changedColumns.add(header);
+                    rowChanged = true;
+                }
+            }
+            if (rowChanged) changedRows.add(r);
+        }
+        return new Diff(activePage, after.activePage, changedRows, changedColumns);
+    }
+
+    @Override
+    public String toString() {
+        return gridId + " page " + activePage + " rows=" + rowCount + " pages=" + pageNumbers();
+    }
+
+    // ---------- Row view ----------
+
+    public final class Row {
+        private final int index;
+
+        Row(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public String get(String header) {
+            return cell(index, header);
+        }
+
+        public String customerName() {
+            return get(CUSTOMER_NAME);
+        }
+
+        public String status() {
+            return get(STATUS);
+        }
+
+        // Digits of a numeric column such as Sum Assured or Premium, -1 if there are none
+        public long number(String header) {
+            String digits = get(header).replaceAll("[^0-9]", "");
+            return digits.isEmpty() ? -1 : Long.parseLong(digits);
+        }
+
+        @Override
+        public String toString() {
+            List<String> values = new ArrayList<>();
+            for (String[] column : columns) values.add(column[index]);
+            return values.toString();
+        }
+    }
+
+    // ---------- Pager item ----------
+
+    public static final class PagerItem {
+        public final String label;
+        public final boolean link;
+        public final String target;
+        public final String argument;
+
+        PagerItem(String label, boolean link, String target, String argument) {
+            this.label = label;
+            this.link = link;
+            this.target = target;
+            this.argument = argument;
+        }
+
+        public boolean isNumeric() {
+            return label.matches("\\d+");
+        }
+
+        public boolean isActive() {
+            return !link && isNumeric();
+        }
+
+        // Page number this item shows or, for "..." links, the page its postback argument opens
+        public int page() {
+            if (isNumeric()) return Integer.parseInt(label);
+            if (argument != null && argument.matches("Page\\$\\d+")) return Integer.parseInt(argument.substring(5));
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return link ? label + "->" + argument : "[" + label + "]";
+        }
+    }
+
+    // ---------- Diff result ----------
+
+    public static final class Diff {
+        public final int pageBefore;
+        public final int pageAfter;
+        public final List<Integer> changedRows;
+        public final Set<String> changedColumns;
+
+        Diff(int pageBefore, int pageAfter, List<Integer> changedRows, Set<String> changedColumns) {
+            this.pageBefore = pageBefore;
+            this.pageAfter = pageAfter;
+            this.changedRows = Collections.unmodifiableList(changedRows);
+            this.changedColumns = Collections.unmodifiableSet(changedColumns);
+        }
+
+        public boolean pageChanged() {
+            return pageBefore != pageAfter;
+        }
+
+        public boolean rowsChanged() {
+            return !changedRows.isEmpty();
+        }
+
+        public boolean columnUnchanged(String header) {
+            return !changedColumns.contains(header);
+        }
+
+        @Override
+        public String toString() {
+            return "page " + pageBefore + " -> " + pageAfter + ", changed rows " + changedRows
+                    + ", changed columns " + changedColumns;
+        }
+    }
+}
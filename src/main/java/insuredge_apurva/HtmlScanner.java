@@ -0,0 +1,265 @@
+package insuredge_apurva;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Streaming HTML tokenizer: start tags (with attributes), end tags and text are handed to a
+ * Handler as they are read, nothing is kept once it has been handed over.
+ *
+ * Enough of HTML for server-rendered ASP.NET pages, not a full HTML5 parser: no tree is built and
+ * no implied end tags are inserted (the handler sees the tags the server wrote), comments and
+ * doctypes are skipped, script/style bodies are skipped as raw text, and the common named entities
+ * plus numeric references are decoded in text and attribute values. Tag and attribute names are
+ * lower-cased.
+ */
+public final class HtmlScanner {
+
+    public interface Handler {
+        void start(String tag, Map<String, String> attributes);
+
+        void end(String tag);
+
+        void text(String text);
+    }
+
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final Handler handler;
+    private final StringBuilder buf = new StringBuilder(256);
+    private int pushedBack = Integer.MIN_VALUE;
+
+    private HtmlScanner(Reader in, Handler handler) {
+        this.in = in;
+        this.handler = handler;
+    }
+
+    public static void scan(Reader in, Handler handler) throws IOException {
+        new HtmlScanner(in, handler).run();
+    }
+
+    private void run() throws IOException {
+        int c;
+        while ((c = read()) != EOF) {
+            if (c != '<') {
+                buf.append((char) c);
+                continue;
+            }
+            int next = read();
+            if (next == '/' || next == '!' || next == '?' || Character.isLetter(next)) {
+                flushText();
+                if (next == '/') {
+                    endTag();
+                } else if (next == '!' || next == '?') {
+                    skipDeclaration(next);
+                } else {
+                    startTag(next);
+                }
+            } else {
+                // A bare '<' in text
+                buf.append('<');
+                unread(next);
+            }
+        }
+        flushText();
+    }
+
+    // ---------- Tags ----------
+
+    private void startTag(int first) throws IOException {
+        String tag = name(first);
+        Map<String, String> attributes = Collections.emptyMap();
+        int c = skipSpace(read());
+        while (c != EOF && c != '>') {
+            if (c == '/') {
+                c = skipSpace(read());
+                continue;
+            }
+            String attr = name(c);
+            c = skipSpace(read());
+            String value = "";
+            if (c == '=') {
+                value = value(skipSpace(read()));
+                c = read();
+            }
+            if (attributes.isEmpty()) attributes = new HashMap<>();
+            if (!attr.isEmpty() && !attributes.containsKey(attr)) attributes.put(attr, value);
+            c = skipSpace(c);
+        }
+        handler.start(tag, attributes);
+        if (tag.equals("script") || tag.equals("style")) skipRawText(tag);
+    }
+
+    private void endTag() throws IOException {
+        int c = read();
+        String tag = name(c);
+        while ((c = read()) != EOF && c != '>') {
+            // ignore anything up to '>'
+        }
+        if (!tag.isEmpty()) handler.end(tag);
+    }
+
+    // Lower-cased tag or attribute name starting with first; the character after it is pushed back
+    private String name(int first) throws IOException {
+        StringBuilder sb = new StringBuilder(12);
+        int c = first;
+        while (c != EOF && c != '>' && c != '/' && c != '=' && !Character.isWhitespace(c)) {
+            sb.append((char) c);
+            c = read();
+        }
+        unread(c);
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private String value(int first) throws IOException {
+        StringBuilder sb = new StringBuilder(32);
+        if (first == '"' || first == '\'') {
+            int c;
+            while ((c = read()) != EOF && c != first) sb.append((char) c);
+        } else {
+            int c = first;
+            while (c != EOF && c != '>' && !Character.isWhitespace(c)) {
+                sb.append((char) c);
+                c = read();
+            }
+            unread(c);
+        }
+        return decode(sb);
+    }
+
+    // <!-- comment -->, <!DOCTYPE ...>, <![CDATA[...]]> and <? ... ?> are not content
+    private void skipDeclaration(int first) throws IOException {
+        int c = read();
+        if (first == '!' && c == '-') {
+            c = read();
+            if (c == '-') {
+                int dashes = 0;
+                while ((c = read()) != EOF) {
+                    if (c == '>' && dashes >= 2) return;
+                    dashes = c == '-' ? dashes + 1 : 0;
+                }
+                return;
+            }
+        }
+        while (c != EOF && c != '>') c = read();
+    }
+
+    // Script and style bodies may contain '<' freely: skip to the matching end tag
+    private void skipRawText(String tag) throws IOException {
+        String close = "</" + tag;
+        int matched = 0;
+        int c;
+        while ((c = read()) != EOF) {
+            if (matched < close.length()) {
+                matched = Character.toLowerCase(c) == close.charAt(matched) ? matched + 1
+                        : c == '<' ? 1 : 0;
+            } else if (c == '>' || Character.isWhitespace(c)) {
+                if (c != '>') {
+                    while ((c = read()) != EOF && c != '>') {
+                        // skip
+                    }
+                }
+                handler.end(tag);
+                return;
+            } else {
+                matched = c == '<' ? 1 : 0;
+            }
+        }
+    }
+
+    // ---------- Text ----------
+
+    private void flushText() {
+        if (buf.length() == 0) return;
+        handler.text(decode(buf));
+        buf.setLength(0);
+    }
+
+    static String decode(CharSequence s) {
+        int amp = indexOf(s, '&', 0);
+        if (amp < 0) return s.toString();
+        StringBuilder out = new StringBuilder(s.length());
+        int i = 0;
+        while (amp >= 0) {
+            out.append(s, i, amp);
+            int semi = indexOf(s, ';', amp);
+            String entity = semi > amp && semi - amp <= 10 ? s.subSequence(amp + 1, semi).toString() : null;
+            String decoded = entity == null ? null : entity(entity);
+            if (decoded == null) {
+                out.append('&');
+                i = amp + 1;
+            } else {
+                out.append(decoded);
+                i = semi + 1;
+            }
+            amp = indexOf(s, '&', i);
+        }
+        return out.append(s, i, s.length()).toString();
+    }
+
+    private static String entity(String name) {
+        if (name.startsWith("#")) {
+            try {
+                int code = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                        ? Integer.parseInt(name.substring(2), 16) : Integer.parseInt(name.substring(1));
+                return new String(Character.toChars(code));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        switch (name) {
+            case "amp": return "&";
+            case "lt": return "<";
+            case "gt": return ">";
+            case "quot": return "\"";
+            case "apos": return "'";
+            case "nbsp": return "\u00a0";
+            case "copy": return "\u00a9";
+            case "reg": return "\u00ae";
+            case "ndash": return "\u2013";
+            case "mdash": return "\u2014";
+            case "hellip": return "\u2026";
+            case "lsquo": return "\u2018";
+            case "rsquo": return "\u2019";
+            case "ldquo": return "\u201c";
+            case "rdquo": return "\u201d";
+            case "laquo": return "\u00ab";
+            case "raquo": return "\u00bb";
+            case "larr": return "\u2190";
+            case "rarr": return "\u2192";
+            default: return null;
+        }
+    }
+
+    private static int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    // ---------- Input ----------
+
+    private int read() throws IOException {
+        if (pushedBack != Integer.MIN_VALUE) {
+            int c = pushedBack;
+            pushedBack = Integer.MIN_VALUE;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    private int skipSpace(int c) throws IOException {
+        while (c != EOF && Character.isWhitespace(c)) c = read();
+        return c;
+    }
+}
@@ -0,0 +1,160 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/*
+ * Browser-free tier of GridCrawler: every page of a GridView fetched over HTTP (PortalHttp) and
+ * checked with GridCrawler's page invariants and row checks, plus the page-level checks a data
+ * assertion needs (the h1 title and the expected headers).
+ *
+ * ASP.NET only accepts postbacks for pager links it rendered, so paging follows the pager: the
+ * "..." links are followed one after the other to reach each page group, and as soon as a group's
+ * first page is in, the other pages of the group are posted back from it on the thread pool. Only
+ * one request per group of ten is on the critical path.
+ *
+ * A few pages are kept by reservoir sampling; crossCheck() opens the same pages in the browser
+ * through its pager and reports any page whose snapshot differs from the HTTP one.
+ */
+public final class HttpGridCrawler {
+
+    private final GridCrawler rules;
+    private final String title;
+    private final List<String> headers;
+    private final int threads;
+    private final int sampleSize;
+
+    private final Map<Integer, GridSnapshot> sample = new TreeMap<>();
+    private final Random random = new Random(17);
+    private int sampled;
+
+    public HttpGridCrawler(String gridId, String title, List<String> headers, List<GridCrawler.RowCheck> checks,
+                           int threads, int sampleSize) {
+        this.rules = new GridCrawler(gridId, checks, Duration.ofSeconds(30));
+        this.title = title;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.threads = threads;
+        this.sampleSize = sampleSize;
+    }
+
+    // Every page of the grid on the page at url
+    public GridCrawler.Report crawl(PortalHttp http, String url) {
+        GridCrawler.Report report = new GridCrawler.Report();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            PortalHttp.Page head = timed(report, () -> http.get(url, rules.gridId()));
+            if (head.grid == null) {
+                report.violation(1, -1, "no grid " + rules.gridId() + " on " + url);
+                return report;
+            }
+            final int pageSize = head.grid.rowCount();
+            int number = 1;
+            while (true) {
+                final PortalHttp.Page group = head;
+                check(number, group, pageSize, report);
+                // No grid, no pager to go on from; check() has recorded the violation
+                if (group.grid == null) break;
+                for (GridSnapshot.PagerItem link : group.grid.pager()) {
+                    if (!link.link || !link.isNumeric() || link.page() <= number) continue;
+                    futures.add(executor.submit(() -> {
+                        check(link.page(), timed(report, () -> http.postBack(group, link)), pageSize, report);
+                        return null;
+                    }));
+                }
+                GridSnapshot.PagerItem forward = GridCrawler.groupLinkToward(group.grid, Integer.MAX_VALUE);
+                if (forward == null) break;
+                head = timed(report, () -> http.postBack(group, forward));
+                number = forward.page();
+            }
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while crawling " + rules.gridId() + " over HTTP", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("HTTP crawl failed on " + rules.gridId(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            report.elapsedNanos = System.nanoTime() - start;
+        }
+        return report;
+    }
+
+    private void check(int number, PortalHttp.Page page, int pageSize, GridCrawler.Report report) {
+        if (!title.equals(page.title)) {
+            report.violation(number, -1, "title is '" + page.title + "'");
+        }
+        if (page.grid == null) {
+            report.violation(number, -1, "has no grid " + rules.gridId());
+            return;
+        }
+        List<String> missing = new ArrayList<>(headers);
+        missing.removeAll(page.grid.headers());
+        if (!missing.isEmpty()) {
+            report.violation(number, -1, "headers " + missing + " missing from " + page.grid.headers());
+        }
+        boolean last = page.grid.linkTo(number + 1) == null;
+        rules.checkPage(number, page.grid, pageSize, last, report);
+        if (last) report.pageCount.accumulateAndGet(number, Math::max);
+        keep(number, page.grid);
+    }
+
+    private static PortalHttp.Page timed(GridCrawler.Report report, Supplier<PortalHttp.Page> fetch) {
+        long start = System.nanoTime();
+        PortalHttp.Page page = fetch.get();
+        report.pageLatency.record(System.nanoTime() - start);
+        return page;
+    }
+
+    // ---------- Cross-check ----------
+
+    // Reservoir sampling: every page has the same chance to be among the sampleSize kept
+    private synchronized void keep(int number, GridSnapshot grid) {
+        sampled++;
+        if (sample.size() < sampleSize) {
+            sample.put(number, grid);
+        } else {
+            int slot = random.nextInt(sampled);
+            if (slot < sampleSize) {
+                sample.remove(new ArrayList<>(sample.keySet()).get(slot));
+                sample.put(number, grid);
+            }
+        }
+    }
+
+    public synchronized Map<Integer, GridSnapshot> sample() {
+        return Collections.unmodifiableMap(new TreeMap<>(sample));
+    }
+
+    // Opens the sampled pages in the browser (in page order, from the page it is on); empty when all match
+    public List<String> crossCheck(WebDriver driver) {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<Integer, GridSnapshot> e : sample().entrySet()) {
+            GridSnapshot http = e.getValue();
+            GridSnapshot shown = rules.open(driver, e.getKey());
+            GridSnapshot.Diff diff = http.diff(shown);
+            if (!http.headers().equals(shown.headers())) {
+                problems.add("page " + e.getKey() + ": headers " + http.headers() + " vs " + shown.headers());
+            } else if (diff.pageChanged() || !diff.changedRows.isEmpty()) {
+                problems.add("page " + e.getKey() + ": rows " + diff.changedRows + " differ in " + diff.changedColumns);
+            } else if (!http.pageNumbers().equals(shown.pageNumbers())) {
+                problems.add("page " + e.getKey() + ": pager " + http.pageNumbers() + " vs " + shown.pageNumbers());
+            }
+        }
+        return problems;
+    }
+}
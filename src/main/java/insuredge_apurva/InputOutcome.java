@@ -0,0 +1,28 @@
+package insuredge_apurva;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// What a text field did with typed input, judged from its value afterwards
+public enum InputOutcome {
+    ACCEPTED,   // value equals the input
+    BLOCKED,    // value is empty
+    SANITIZED,  // special characters removed, only letters, digits and spaces remain
+    CHANGED;    // anything else (truncated, transformed ...)
+
+    public static InputOutcome classify(String input, String actual) {
+        if (actual == null || actual.isEmpty()) return input.isEmpty() ? ACCEPTED : BLOCKED;
+        if (actual.equals(input)) return ACCEPTED;
+        if (actual.matches("[A-Za-z0-9 ]+")) return SANITIZED;
+        return CHANGED;
+    }
+
+    // "BLOCKED|SANITIZED|ACCEPTED" (separated by |, comma or spaces, any case)
+    public static Set<InputOutcome> parse(String expected) {
+        Set<InputOutcome> set = EnumSet.noneOf(InputOutcome.class);
+        for (String part : expected.trim().split("[|,\\s]+")) {
+            if (!part.isEmpty()) set.add(valueOf(part.toUpperCase()));
+        }
+        return set;
+    }
+}
@@ -0,0 +1,219 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Types large batches of candidate strings into one text field inside the page and classifies
+ * what the field kept for each of them (InputOutcome).
+ *
+ * A batch is one executeScript call: for every character the script dispatches keydown, keypress,
+ * beforeinput, the insertion with its input event and keyup, honouring preventDefault() and
+ * maxlength like real typing, then fires change. Client-side filters and sanitizers therefore
+ * run as they would for a user. Because synthetic events are not trusted, a few inputs of every
+ * batch are typed again with real sendKeys (+TAB for the change) and must end with the same value.
+ *
+ *   -Dvalidation.batch=500         inputs per script call
+ *   -Dvalidation.crossCheck=3      inputs per batch re-typed with sendKeys
+ */
+public final class InputValidationEngine {
+
+    private static final int MAX_EXAMPLES = 20;
+
+    // arguments[0]: the field, arguments[1]: the inputs; returns the value kept for each input
+    static final String TYPE_BATCH_JS =
+            "var el = arguments[0], inputs = arguments[1], out = [];"
+                    + "var proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;"
+                    // The native setter, so frameworks that track value assignments still see the change
+                    + "var setter = Object.getOwnPropertyDescriptor(proto, 'value').set;"
+                    + "function setValue(v){ setter.call(el, v); }"
+                    + "function key(type, ch){"
+                    + "  var e = new KeyboardEvent(type, {key: ch, charCode: type === 'keypress' ? ch.charCodeAt(0) : 0,"
+                    + "    bubbles: true, cancelable: true, composed: true});"
+                    + "  return el.dispatchEvent(e);"
+                    + "}"
+                    + "function typeChar(ch){"
+                    + "  var go = key('keydown', ch) && key('keypress', ch)"
+                    + "    && el.dispatchEvent(new InputEvent('beforeinput', {inputType: 'insertText', data: ch, bubbles: true, cancelable: true, composed: true}));"
+                    + "  if (go) {"
+                    + "    var v = el.value, start = el.selectionStart == null ? v.length : el.selectionStart;"
+                    + "    var end = el.selectionEnd == null ? start : el.selectionEnd;"
+                    + "    var max = el.maxLength;"
+                    + "    if (!(max >= 0 && v.length - (end - start) + ch.length > max)) {"
+                    + "      setValue(v.slice(0, start) + ch + v.slice(end));"
+                    + "      try { el.setSelectionRange(start + ch.length, start + ch.length); } catch (e) {}"
+                    + "      el.dispatchEvent(new InputEvent('input', {inputType: 'insertText', data: ch, bubbles: true, composed: true}));"
+                    + "    }"
+                    + "  }"
+                    + "  key('keyup', ch);"
+                    + "}"
+                    + "function clear(){ setValue(''); el.dispatchEvent(new InputEvent('input', {inputType: 'deleteContentBackward', bubbles: true, composed: true})); }"
+                    + "el.focus();"
+                    + "for (var i = 0; i < inputs.length; i++) {"
+                    + "  clear();"
+                    + "  var chars = Array.from(inputs[i]);"
+                    + "  for (var c = 0; c < chars.length; c++) typeChar(chars[c]);"
+                    + "  el.dispatchEvent(new Event('change', {bubbles: true}));"
+                    + "  out.push(el.value);"
+                    + "}"
+                    + "clear();"
+                    + "return out;";
+
+    // Called for every input once it has been typed
+    public interface Listener {
+        void result(long index, String input, String actual, InputOutcome outcome);
+    }
+
+    private final WebDriver driver;
+    private final By field;
+    private final int batchSize;
+    private final int crossCheck;
+    private final Random random = new Random(42);
+
+    public InputValidationEngine(WebDriver driver, By field) {
+        this(driver, field, Integer.getInteger("validation.batch", 500), Integer.getInteger("validation.crossCheck", 3));
+    }
+
+    public InputValidationEngine(WebDriver driver, By field, int batchSize, int crossCheck) {
+        if (batchSize < 1) throw new IllegalArgumentException("batch size must be >= 1 but was " + batchSize);
+        this.driver = driver;
+        this.field = field;
+        this.batchSize = batchSize;
+        this.crossCheck = crossCheck;
+    }
+
+    public Report run(Iterator<String> inputs, Listener listener) {
+        Report report = new Report();
+        long start = System.nanoTime();
+        WebElement element = driver.findElement(field);
+        List<String> batch = new ArrayList<>(batchSize);
+
+        while (inputs.hasNext()) {
+            batch.add(inputs.next());
+            if (batch.size() == batchSize || !inputs.hasNext()) {
+                runBatch(element, batch, listener, report);
+                batch.clear();
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runBatch(WebElement element, List<String> batch, Listener listener, Report report) {
+        List<Object> values = (List<Object>) ((JavascriptExecutor) driver).executeScript(TYPE_BATCH_JS, element, batch);
+
+        for (int i = 0; i < batch.size(); i++) {
+            String input = batch.get(i);
+            String actual = String.valueOf(values.get(i));
+            InputOutcome outcome = InputOutcome.classify(input, actual);
+            report.outcomes.merge(outcome, 1L, Long::sum);
+            if (listener != null) listener.result(report.inputs, input, actual, outcome);
+            report.inputs++;
+        }
+
+        // Same inputs through real keystrokes: the in-page typing must agree with them
+        for (int n = 0; n < Math.min(crossCheck, batch.size()); n++) {
+            int i = random.nextInt(batch.size());
+            String input = batch.get(i);
+            element.clear();
+            element.sendKeys(input, Keys.TAB);
+            String real = element.getAttribute("value");
+            report.crossChecked++;
+            if (!real.equals(String.valueOf(values.get(i)))) {
+                report.mismatch("'" + input + "': in-page '" + values.get(i) + "' vs sendKeys '" + real + "'");
+            }
+        }
+        element.clear();
+    }
+
+    // ---------- Fuzz corpus ----------
+
+    // Deterministic mix of alphanumeric, special-only and mixed strings (accents, quotes, markup, SQL)
+    public static Iterator<String> fuzzCorpus(final int size, final long seed) {
+        final String alnum = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789 ";
+        final String specials = "@#$%^&*!~`'\"<>/\\()[]{}|;:,.?-_+=éüñß€";
+        final String[] fragments = {"<script>", "' OR 1=1 --", "../", "%00", "&amp;", "Policy@123", "@#$%^&*"};
+        final Random random = new Random(seed);
+
+        return new Iterator<String>() {
+            private int produced;
+
+            @Override
+            public boolean hasNext() {
+                return produced < size;
+            }
+
+            @Override
+            public String next() {
+                int kind = produced++ % 4;
+                if (kind == 3) return fragments[random.nextInt(fragments.length)];
+                StringBuilder sb = new StringBuilder();
+                int length = 1 + random.nextInt(16);
+                for (int c = 0; c < length; c++) {
+                    boolean special = kind == 1 || (kind == 2 && random.nextInt(3) == 0);
+                    String pool = special ? specials : alnum;
+                    sb.append(pool.charAt(random.nextInt(pool.length())));
+                }
+                return sb.toString();
+            }
+        };
+    }
+
+    // ---------- Result ----------
+
+    public static final class Report {
+        long inputs;
+        long crossChecked;
+        long mismatches;
+        long elapsedNanos;
+        final Map<InputOutcome, Long> outcomes = new EnumMap<>(InputOutcome.class);
+        final List<String> examples = new ArrayList<>();
+
+        void mismatch(String example) {
+            if (++mismatches <= MAX_EXAMPLES) examples.add(example);
+        }
+
+        public long inputs() {
+            return inputs;
+        }
+
+        public long count(InputOutcome outcome) {
+            return outcomes.getOrDefault(outcome, 0L);
+        }
+
+        public long crossChecked() {
+            return crossChecked;
+        }
+
+        public long mismatches() {
+            return mismatches;
+        }
+
+        public List<String> mismatchExamples() {
+            return examples;
+        }
+
+        public double inputsPerSecond() {
+            return elapsedNanos == 0 ? 0 : inputs / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d inputs in %d ms (%.0f inputs/s) %s | cross-checked %d with sendKeys, %d mismatches",
+                    inputs, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), inputsPerSecond(), outcomes,
+                    crossChecked, mismatches);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package insuredge_apurva;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Lock-free, fixed-size latency histogram (nanoseconds).
+ *
+ * Log-linear buckets: exact below 16 ns, then 16 sub-buckets per power of two, so any recorded
+ * value is reported within ~6%. record() is a few atomic increments and never allocates, which
+ * keeps it cheap enough to call from hot paths and from many threads at once.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+        if (nanos < min.get()) min.accumulateAndGet(nanos, Math::min);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long totalNanos() {
+        return sum.get();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public long minNanos() {
+        long m = min.get();
+        return m == Long.MAX_VALUE ? 0 : m;
+    }
+
+    public double meanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // Approximate value at quantile q (0..1), e.g. percentileNanos(0.95) for p95
+    public long percentileNanos(double q) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(midpoint(i), max.get());
+        }
+        return max.get();
+    }
+
+    public double percentileMillis(double q) {
+        return percentileNanos(q) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // Adds another histogram's recordings into this one
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+        min.accumulateAndGet(other.min.get(), Math::min);
+    }
+
+    // Compact "n=.. mean=.. p50=.. p95=.. p99=.. max=.." summary in milliseconds
+    public String summary() {
+        return String.format("n=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                count(), meanNanos() / 1e6, percentileMillis(0.50), percentileMillis(0.95),
+                percentileMillis(0.99), maxNanos() / 1e6);
+    }
+
+    // ---------- Buckets ----------
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = (index >> SUB_BITS) + SUB_BITS - 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        return ((long) (SUB_BUCKETS + sub)) << (exp - SUB_BITS);
+    }
+
+    private static long midpoint(int index) {
+        if (index < SUB_BUCKETS) return index;
+        long low = lowerBound(index);
+        int exp = (index >> SUB_BITS) + SUB_BITS - 1;
+        return low + ((1L << (exp - SUB_BITS)) >> 1);
+    }
+}
@@ -0,0 +1,189 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Logs in once per suite and replays the captured login state (auth cookies plus
+ * local/session storage) into any other WebDriver session, so it can go straight to
+ * the target page without the LoginPage round-trips.
+ *
+ * A cached state that no longer works (cookie expired, server-side session invalidated)
+ * is detected on injection and replaced by a fresh login. Only one thread logs in at a
+ * time; threads that were waiting reuse the state the winner captured.
+ */
+public final class LoginStateCache {
+
+    private static final LoginStateCache INSTANCE = new LoginStateCache();
+
+    public static LoginStateCache get() {
+        return INSTANCE;
+    }
+
+    private static final String CAPTURE_STORAGE_JS =
+            "function dump(s){var o={};for(var i=0;i<s.length;i++){var k=s.key(i);o[k]=s.getItem(k);}return o;}"
+                    + "return {local: dump(window.localStorage), session: dump(window.sessionStorage)};";
+
+    private static final String RESTORE_STORAGE_JS =
+            "var d=arguments[0];"
+                    + "for (var k in d.local) window.localStorage.setItem(k, d.local[k]);"
+                    + "for (var k in d.session) window.sessionStorage.setItem(k, d.session[k]);";
+
+    private final ReentrantLock loginLock = new ReentrantLock();
+    private volatile LoginState state;
+
+    private LoginStateCache() {
+    }
+
+    // Leaves the driver logged in on the landing page and returns that page's URL
+    public String applyTo(WebDriver driver) {
+        LoginState cached = state;
+        if (cached != null && !cached.isExpired() && inject(driver, cached)) {
+            return cached.landingUrl;
+        }
+        return refresh(driver, cached).landingUrl;
+    }
+
+    // Drops the cached state so the next applyTo() logs in again
+    public void invalidate() {
+        loginLock.lock();
+        try {
+            state = null;
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    private LoginState refresh(WebDriver driver, LoginState stale) {
+        loginLock.lock();
+        try {
+            // Another thread may have logged in while we were waiting for the lock
+            LoginState current = state;
+            if (current != null && current != stale && !current.isExpired() && inject(driver, current)) {
+                return current;
+            }
+            current = login(driver);
+            state = current;
+            return current;
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    // ---------- Login + capture ----------
+
+    private LoginState login(WebDriver driver) {
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+
+        // Start from a clean, unauthenticated origin (a stale session would skip the login form)
+        driver.get(Portal.loginUrl());
+        driver.manage().deleteAllCookies();
+        driver.get(Portal.loginUrl());
+
+        wait.until(ExpectedConditions.visibilityOfElementLocated(Portal.txtUsername)).sendKeys(Portal.USERNAME);
+        driver.findElement(Portal.txtPassword).sendKeys(Portal.PASSWORD, Keys.ENTER);
+        wait.until(ExpectedConditions.visibilityOfElementLocated(Portal.sidebar));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> storage = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_STORAGE_JS);
+
+        return new LoginState(driver.manage().getCookies(), storage, driver.getCurrentUrl());
+    }
+
+    // ---------- Injection ----------
+
+    private boolean inject(WebDriver driver, LoginState s) {
+        try {
+            if (driver instanceof HasCdp && !s.hasStorage()) {
+                // Cookies can be set through DevTools without loading any page first
+                ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Collections.<String, Object>emptyMap());
+                ((HasCdp) driver).executeCdpCommand("Network.setCookies", Collections.<String, Object>singletonMap("cookies", s.cdpCookies()));
+            } else {
+                // Cookies and storage are per origin, so an origin page has to be loaded first
+                driver.get(Portal.loginUrl());
+                driver.manage().deleteAllCookies();
+                for (Cookie cookie : s.cookies) {
+                    driver.manage().addCookie(cookie);
+                }
+                if (s.hasStorage()) {
+                    ((JavascriptExecutor) driver).executeScript(RESTORE_STORAGE_JS, s.storage);
+                }
+            }
+
+            driver.get(s.landingUrl);
+            return isLoggedIn(driver);
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    // The portal bounces unauthenticated requests back to LoginPage, which has no sidebar
+    private static boolean isLoggedIn(WebDriver driver) {
+        String url = driver.getCurrentUrl();
+        return url != null && !url.contains("LoginPage") && !driver.findElements(Portal.sidebar).isEmpty();
+    }
+
+    // ---------- Captured state ----------
+
+    private static final class LoginState {
+        final Set<Cookie> cookies;
+        final Map<String, Object> storage;
+        final String landingUrl;
+
+        LoginState(Set<Cookie> cookies, Map<String, Object> storage, String landingUrl) {
+            this.cookies = Collections.unmodifiableSet(new HashSet<>(cookies));
+            this.storage = storage == null ? Collections.<String, Object>emptyMap() : storage;
+            this.landingUrl = landingUrl;
+        }
+
+        boolean isExpired() {
+            Date now = new Date();
+            for (Cookie cookie : cookies) {
+                if (cookie.getExpiry() != null && cookie.getExpiry().before(now)) return true;
+            }
+            return false;
+        }
+
+        boolean hasStorage() {
+            for (Object area : storage.values()) {
+                if (area instanceof Map && !((Map<?, ?>) area).isEmpty()) return true;
+            }
+            return false;
+        }
+
+        List<Map<String, Object>> cdpCookies() {
+            List<Map<String, Object>> out = new ArrayList<>();
+            for (Cookie cookie : cookies) {
+                Map<String, Object> c = new HashMap<>();
+                c.put("name", cookie.getName());
+                c.put("value", cookie.getValue());
+                if (cookie.getDomain() != null) c.put("domain", cookie.getDomain());
+                else c.put("url", Portal.baseUrl());
+                c.put("path", cookie.getPath());
+                c.put("secure", cookie.isSecure());
+                c.put("httpOnly", cookie.isHttpOnly());
+                if (cookie.getExpiry() != null) c.put("expires", cookie.getExpiry().getTime() / 1000.0);
+                if (cookie.getSameSite() != null) c.put("sameSite", cookie.getSameSite());
+                out.add(c);
+            }
+            return out;
+        }
+    }
+}
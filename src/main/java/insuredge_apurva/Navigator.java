@@ -0,0 +1,114 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Gets a session onto one of the admin pages with as little work as possible.
+ *
+ *   current  the page's h1 is already showing: nothing to do (one script call)
+ *   direct   the page has been reached before in this JVM: driver.get() of its learned URL
+ *   menu     otherwise, and always for byMenu(): the sidebar clicks (Policy Holder's, then the
+ *            item), after which the URL is learned for every session of the suite
+ *
+ * A learned URL that does not land on its page (the portal moved it, or bounced the request) is
+ * forgotten and the menu is used instead. Only the tests that are about navigation should call
+ * byMenu(); everything else uses to(). The counts are printed by DriverPoolListener.
+ */
+public final class Navigator {
+
+    public enum Page {
+        DASHBOARD("Dashboard", null, By.xpath("//*[@id='sidebar-nav']/li[1]/a")),
+        PENDING_POLICY_HOLDERS("Pending Policy Holders", POLICY_HOLDER_MENU, By.xpath("//*[@id='policyHolder-nav']/li[3]/a/span")),
+        REJECTED_POLICY_HOLDERS("Rejected Policy Holders", POLICY_HOLDER_MENU, By.xpath("//*[@id='policyHolder-nav']/li[4]/a/span"));
+
+        final String title;
+        final By parent;
+        final By item;
+
+        Page(String title, By parent, By item) {
+            this.title = title;
+            this.parent = parent;
+            this.item = item;
+        }
+
+        public By titleLocator() {
+            return By.xpath("//h1[normalize-space()='" + title + "']");
+        }
+    }
+
+    private static final By POLICY_HOLDER_MENU = By.xpath("//*[@id='sidebar-nav']/li[5]/a/i[2]");
+    private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+    private static final String TITLE_JS =
+            "var h = document.readyState === 'complete' && document.querySelector('h1');"
+            + "return h ? h.textContent.replace(/\\s+/g, ' ').trim() : null;";
+
+    private static final Map<Page, String> URLS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong current = new AtomicLong();
+    private static final AtomicLong direct = new AtomicLong();
+    private static final AtomicLong menu = new AtomicLong();
+    private static final AtomicLong stale = new AtomicLong();
+
+    private Navigator() {
+    }
+
+    public static void to(WebDriver driver, Page page) {
+        if (isCurrent(driver, page)) {
+            current.incrementAndGet();
+            return;
+        }
+        String url = URLS.get(page);
+        if (url != null) {
+            driver.get(url);
+            try {
+                new DomWait(driver, TIMEOUT).until(DomConditions.visibilityOfElementLocated(page.titleLocator()));
+                direct.incrementAndGet();
+                return;
+            } catch (TimeoutException e) {
+                URLS.remove(page, url);
+                stale.incrementAndGet();
+                SuiteLog.info("Navigator: " + url + " did not open " + page.title + ", using the menu");
+            }
+        }
+        byMenu(driver, page);
+    }
+
+    // Through the sidebar, whatever is cached: for the tests that check the menu itself
+    public static void byMenu(WebDriver driver, Page page) {
+        DomWait wait = new DomWait(driver, TIMEOUT);
+        if (page.parent != null) {
+            // The parent toggles: only open it when the item is not showing already
+            List<WebElement> items = driver.findElements(page.item);
+            if (items.isEmpty() || !items.get(0).isDisplayed()) {
+                wait.until(DomConditions.elementToBeClickable(page.parent)).click();
+            }
+        }
+        wait.until(DomConditions.elementToBeClickable(page.item)).click();
+        wait.until(DomConditions.visibilityOfElementLocated(page.titleLocator()));
+        PerfCapture.capture(driver);
+        menu.incrementAndGet();
+        URLS.put(page, driver.getCurrentUrl());
+    }
+
+    public static boolean isCurrent(WebDriver driver, Page page) {
+        return page.title.equals(((JavascriptExecutor) driver).executeScript(TITLE_JS));
+    }
+
+    // ---------- Report ----------
+
+    public static String summary() {
+        return String.format("Navigator: %d already current, %d direct, %d by menu, %d stale URLs; learned %s",
+                current.get(), direct.get(), menu.get(), stale.get(), URLS.keySet());
+    }
+}
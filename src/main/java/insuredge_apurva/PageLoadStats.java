@@ -0,0 +1,243 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Bytes transferred and page-load time per BrowserProfile.
+ *
+ * DriverPool decorates each session with this listener. After every get(), before a session leaves
+ * a page through get() (including the pool's reset on release), before quit() and on
+ * PerfCapture.capture(), one script (PerfCapture.CAPTURE_JS) reads the page's Navigation, Resource
+ * and Paint Timing entries: transferSize of the document plus every resource, the request count,
+ * loadEventEnd and the timings PerfCapture keeps per page. Pages are told apart by
+ * performance.timeOrigin, so a page sampled twice counts once. Pages left through a click/postback
+ * are sampled only if something samples them before, i.e. the numbers are a lower bound;
+ * cross-origin resources without Timing-Allow-Origin report 0 bytes.
+ *
+ * With PerfCapture off (the default outside testng-perf.xml) only the samples before get() and
+ * quit() are taken, and they read the page as it is rather than waiting for its load event.
+ *
+ * DriverPoolListener prints the summary; test-output/profile-stats.properties keeps the latest run
+ * of each profile so fast and fidelity can be compared side by side.
+ */
+public final class PageLoadStats implements WebDriverListener {
+
+    private static final PageLoadStats INSTANCE = new PageLoadStats();
+    private static final File STORE = new File("test-output", "profile-stats.properties");
+
+    // A page that is still loading is given this long to fire its load event before it is read
+    private static final long LOAD_WAIT_MS = 10000;
+
+    public static PageLoadStats get() {
+        return INSTANCE;
+    }
+
+    private final Map<WebDriver, BrowserProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<WebDriver, Sample> pending = new ConcurrentHashMap<>();
+    private final Map<BrowserProfile, Totals> totals = new EnumMap<>(BrowserProfile.class);
+
+    private PageLoadStats() {
+        for (BrowserProfile p : BrowserProfile.values()) totals.put(p, new Totals());
+    }
+
+    public WebDriver decorate(WebDriver driver, BrowserProfile profile) {
+        profiles.put(driver, profile);
+        return new EventFiringDecorator<>(this).decorate(driver);
+    }
+
+    // ---------- Sampling ----------
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        sample(driver, 0, false);
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url) {
+        if (PerfCapture.get().enabled()) sample(driver, LOAD_WAIT_MS, true);
+    }
+
+    @Override
+    public void beforeQuit(WebDriver driver) {
+        sample(driver, 0, false);
+        Sample last = pending.remove(driver);
+        BrowserProfile profile = profiles.remove(driver);
+        if (last != null && profile != null) totals.get(profile).add(last);
+    }
+
+    // The page a decorated session is on, once the caller has waited for it (PerfCapture.capture)
+    void capture(WebDriver driver) {
+        if (!PerfCapture.get().enabled()) return;
+        WebDriver d = driver;
+        while (!profiles.containsKey(d) && d instanceof WrapsDriver) {
+            d = ((WrapsDriver) d).getWrappedDriver();
+        }
+        sample(d, LOAD_WAIT_MS, false);
+    }
+
+    private void sample(WebDriver driver, long loadWaitMs, boolean afterGet) {
+        BrowserProfile profile = profiles.get(driver);
+        if (profile == null) return;
+        Object raw;
+        Sample s;
+        try {
+            raw = ((JavascriptExecutor) driver).executeAsyncScript(PerfCapture.CAPTURE_JS, loadWaitMs);
+            s = Sample.of(raw);
+        } catch (WebDriverException e) {
+            return;
+        }
+        if (s == null) return;
+        Sample previous = pending.put(driver, s);
+        // Same document as last time: the newer sample replaces it, otherwise the old page is done
+        if (previous != null && previous.origin == s.origin) {
+            s.kind = previous.kind;
+        } else {
+            if (previous != null) totals.get(profile).add(previous);
+            s.kind = afterGet ? "get"
+                    : previous != null && PerfCapture.pageName(previous.url).equals(PerfCapture.pageName(s.url)) ? "postback"
+                    : "click";
+        }
+        PerfCapture.get().record(asMap(raw), s.kind, profile);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object raw) {
+        return (Map<String, Object>) raw;
+    }
+
+    // ---------- Report ----------
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Page loads per browser profile (lower bound, see PageLoadStats):\n");
+        sb.append(String.format("%-9s %6s %12s %10s %9s %10s %10s%n",
+                "profile", "pages", "total KB", "KB/page", "req/page", "load avg", "load p95"));
+        for (Map.Entry<BrowserProfile, Totals> e : totals.entrySet()) {
+            Totals t = e.getValue();
+            if (t.pages.get() == 0) continue;
+            sb.append(t.row(e.getKey().label())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Stores this run's profiles and returns the table of the latest run of every profile
+    public String export() {
+        Properties store = load();
+        for (Map.Entry<BrowserProfile, Totals> e : totals.entrySet()) {
+            Totals t = e.getValue();
+            if (t.pages.get() == 0) continue;
+            String k = e.getKey().label() + ".";
+            store.setProperty(k + "pages", String.valueOf(t.pages.get()));
+            store.setProperty(k + "bytes", String.valueOf(t.bytes.get()));
+            store.setProperty(k + "requests", String.valueOf(t.requests.get()));
+            store.setProperty(k + "loadMeanMs", String.format("%.0f", t.loads.meanNanos() / 1e6));
+            store.setProperty(k + "loadP95Ms", String.format("%.0f", t.loads.percentileMillis(0.95)));
+        }
+        save(store);
+
+        StringBuilder sb = new StringBuilder("Latest run per profile (" + STORE + "):\n");
+        sb.append(String.format("%-9s %6s %10s %9s %10s %10s%n",
+                "profile", "pages", "KB/page", "req/page", "load avg", "load p95"));
+        for (BrowserProfile p : BrowserProfile.values()) {
+            String k = p.label() + ".";
+            long pages = Long.parseLong(store.getProperty(k + "pages", "0"));
+            if (pages == 0) continue;
+            sb.append(String.format("%-9s %6d %10.1f %9.1f %8s ms %8s ms%n", p.label(), pages,
+                    Long.parseLong(store.getProperty(k + "bytes")) / 1024.0 / pages,
+                    (double) Long.parseLong(store.getProperty(k + "requests")) / pages,
+                    store.getProperty(k + "loadMeanMs"), store.getProperty(k + "loadP95Ms")));
+        }
+        return sb.toString();
+    }
+
+    private static Properties load() {
+        Properties p = new Properties();
+        if (STORE.isFile()) {
+            try (InputStream in = new FileInputStream(STORE)) {
+                p.load(in);
+            } catch (IOException e) {
+                SuiteLog.info("Could not read " + STORE + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+
+    private static void save(Properties p) {
+        STORE.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(STORE)) {
+            p.store(out, "Latest page-load totals per browser profile");
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + STORE + ": " + e.getMessage());
+        }
+    }
+
+    // ---------- Data ----------
+
+    private static final class Sample {
+        final double origin;
+        final String url;
+        final long bytes;
+        final long requests;
+        final long loadMillis;
+        // How the document was reached (see PerfCapture), set once per document
+        String kind;
+
+        private Sample(double origin, String url, long bytes, long requests, long loadMillis) {
+            this.origin = origin;
+            this.url = url;
+            this.bytes = bytes;
+            this.requests = requests;
+            this.loadMillis = loadMillis;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Sample of(Object raw) {
+            if (!(raw instanceof Map)) return null;
+            Map<String, Object> m = (Map<String, Object>) raw;
+            return new Sample(number(m.get("origin")).doubleValue(), String.valueOf(m.get("url")), number(m.get("bytes")).longValue(),
+                    number(m.get("requests")).longValue(), number(m.get("load")).longValue());
+        }
+
+        private static Number number(Object o) {
+            return o instanceof Number ? (Number) o : 0;
+        }
+    }
+
+    private static final class Totals {
+        final AtomicLong pages = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong requests = new AtomicLong();
+        final LatencyHistogram loads = new LatencyHistogram();
+
+        void add(Sample s) {
+            pages.incrementAndGet();
+            bytes.addAndGet(s.bytes);
+            requests.addAndGet(s.requests);
+            if (s.loadMillis >= 0) loads.record(TimeUnit.MILLISECONDS.toNanos(s.loadMillis));
+        }
+
+        String row(String label) {
+            long n = pages.get();
+            return String.format("%-9s %6d %12d %10.1f %9.1f %7.0f ms %7.0f ms", label, n, bytes.get() / 1024,
+                    bytes.get() / 1024.0 / n, (double) requests.get() / n,
+                    loads.meanNanos() / 1e6, loads.percentileMillis(0.95));
+        }
+    }
+}
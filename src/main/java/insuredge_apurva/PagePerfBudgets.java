@@ -0,0 +1,31 @@
+package insuredge_apurva;
+
+import org.testng.Assert;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Page timing budgets (perf-budgets.properties) over every page the earlier tests of the suite opened
+// Run last, in its own <test> (testng-perf.xml); the trend against earlier runs is printed at suite end
+public class PagePerfBudgets {
+
+    // perf.pages: the "<page>" or "<page>.<kind>" the suite must have sampled; every budgeted page when left out
+    @Test(description = "Navigation/Paint timings of LoginPage, the admin pages and the grid postbacks are within budget")
+    @Parameters("perf.pages")
+    public void pagesWithinBudget(@Optional("") String pages) {
+        PerfCapture perf = PerfCapture.get();
+        Assert.assertTrue(perf.enabled(), "Page timings are not captured: run with -Dperf.capture=true or testng-perf.xml");
+
+        Collection<String> required = pages.trim().isEmpty() ? perf.budgetedPages() : Arrays.asList(pages.split(","));
+        List<String> unsampled = perf.unsampled(required);
+        Assert.assertTrue(unsampled.isEmpty(), "No timings recorded for " + unsampled + ", the budgets were not checked");
+
+        List<String> broken = perf.budgetViolations();
+        Assert.assertTrue(broken.isEmpty(), "Page timing budgets broken:\n" + String.join("\n", broken));
+        SuiteLog.info("Page timing budgets met for " + required);
+    }
+}
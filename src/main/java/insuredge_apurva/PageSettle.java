@@ -0,0 +1,187 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Tells when an ASP.NET postback (full or UpdatePanel) has settled.
+ *
+ * arm() installs a small tracker in the page before the action: it counts XHR/fetch requests in
+ * flight, notes when a form is submitted or the page starts unloading, timestamps every DOM
+ * mutation and stamps the document with a token. awaitSettled() then blocks in one async script
+ * until something has happened since arm() and the page is quiet again: readyState complete, no
+ * request in flight, no pending async postback and no DOM change for a short quiet window.
+ * "Something" is a new document (the token is gone), a request or a DOM mutation; a
+ * __doPostBack link only starts its postback in a later task, so a page that is merely quiet
+ * right after the click has not settled yet. A document without the token is the one the
+ * postback loaded; the tracker is installed there too and the same rules apply.
+ *
+ * Usage:
+ *   PageSettle settle = PageSettle.arm(driver);
+ *   link.click();
+ *   settle.awaitSettled(Duration.ofSeconds(12));
+ */
+public final class PageSettle {
+
+    // DOM must stay unchanged this long before the page counts as settled
+    private static final long QUIET_MS = Long.getLong("settle.quietMs", 50);
+    // Kept under the 30 s W3C default script timeout
+    private static final long SCRIPT_BUDGET_MS = 25_000;
+    private static final long REINSTALL_PAUSE_MS = 25;
+
+    private static final AtomicLong tokens = new AtomicLong();
+
+    // Installs window.__settle once per document; the caller then sets the token
+    private static final String TRACKER_JS =
+            "var w = window;"
+                    + "if (!w.__settle) {"
+                    + "  var s = w.__settle = {inflight: 0, leaving: false, requests: 0, lastChange: performance.now(), armedAt: 0, token: null};"
+                    + "  var bump = function(){ s.lastChange = performance.now(); };"
+                    + "  var send = XMLHttpRequest.prototype.send;"
+                    + "  XMLHttpRequest.prototype.send = function(){"
+                    + "    s.inflight++; s.requests++; bump();"
+                    + "    this.addEventListener('loadend', function(){ s.inflight--; bump(); });"
+                    + "    return send.apply(this, arguments);"
+                    + "  };"
+                    + "  if (w.fetch) {"
+                    + "    var fetch = w.fetch;"
+                    + "    w.fetch = function(){"
+                    + "      s.inflight++; s.requests++; bump();"
+                    + "      var landed = function(){ s.inflight--; bump(); };"
+                    + "      return fetch.apply(this, arguments).then(function(r){ landed(); return r; }, function(e){ landed(); throw e; });"
+                    + "    };"
+                    + "  }"
+                    // A full postback ends in theForm.submit(); UpdatePanels go through XHR instead
+                    + "  var submit = HTMLFormElement.prototype.submit;"
+                    + "  HTMLFormElement.prototype.submit = function(){ s.leaving = true; return submit.apply(this, arguments); };"
+                    + "  w.addEventListener('submit', function(e){ if (!e.defaultPrevented) s.leaving = true; });"
+                    + "  w.addEventListener('beforeunload', function(){ s.leaving = true; }, true);"
+                    + "  new MutationObserver(bump).observe(document, {subtree: true, childList: true, characterData: true, attributes: true});"
+                    + "}";
+
+    // arguments[0]: token
+    static final String ARM_JS =
+            TRACKER_JS
+                    + "var s = w.__settle; s.token = arguments[0]; s.leaving = false; s.requests = 0;"
+                    // Anything that bumps lastChange past armedAt happened because of the action
+                    + "s.armedAt = s.lastChange = performance.now();"
+                    + "return document.readyState;";
+
+    // arguments[0]: token, arguments[1]: quiet window in ms, arguments[2]: in-page budget in ms
+    static final String SETTLE_JS =
+            "var token = arguments[0], quietMs = arguments[1], budget = arguments[2], done = arguments[arguments.length - 1];"
+                    + "var navigated = !window.__settle || window.__settle.token !== token;"
+                    + TRACKER_JS
+                    + "var s = w.__settle, t0 = performance.now();"
+                    + "function asyncPostBack(){"
+                    + "  try { return !!(w.Sys && Sys.WebForms && Sys.WebForms.PageRequestManager.getInstance().get_isInAsyncPostBack()); }"
+                    + "  catch (e) { return false; }"
+                    + "}"
+                    + "function changed(){ return navigated || s.leaving || s.requests > 0 || s.lastChange > s.armedAt; }"
+                    + "function state(settled){"
+                    + "  return {settled: settled, changed: changed(), navigated: navigated, leaving: s.leaving, inflight: s.inflight, requests: s.requests,"
+                    + "          readyState: document.readyState, inPageMs: performance.now() - t0};"
+                    + "}"
+                    + "(function tick(){"
+                    + "  var now = performance.now();"
+                    // Leaving: this document is about to be replaced, the unload aborts this script
+                    + "  if (changed() && !s.leaving && document.readyState === 'complete' && s.inflight <= 0 && !asyncPostBack()"
+                    + "      && now - s.lastChange >= quietMs) { done(state(true)); return; }"
+                    + "  if (now - t0 >= budget) { done(state(false)); return; }"
+                    + "  setTimeout(tick, 10);"
+                    + "})();";
+
+    private final WebDriver driver;
+    private final String token;
+    private final long armedAt;
+
+    private PageSettle(WebDriver driver, String token) {
+        this.driver = driver;
+        this.token = token;
+        this.armedAt = System.nanoTime();
+    }
+
+    // Call right before the action that triggers the postback
+    public static PageSettle arm(WebDriver driver) {
+        String token = "settle-" + tokens.incrementAndGet();
+        ((JavascriptExecutor) driver).executeScript(ARM_JS, token);
+        return new PageSettle(driver, token);
+    }
+
+    // Blocks until the page (old or newly loaded) has changed and is quiet; throws TimeoutException otherwise,
+    // also when nothing at all happened after arm()
+    @SuppressWarnings("unchecked")
+    public Result awaitSettled(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean replaced = false;
+        Map<String, Object> last = null;
+        WebDriverException error = null;
+
+        while (true) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) break;
+            try {
+                last = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(
+                        SETTLE_JS, token, QUIET_MS, Math.min(remainingMs, SCRIPT_BUDGET_MS));
+            } catch (JavascriptException | ScriptTimeoutException e) {
+                // The postback unloaded the document under the script: settle on the new one
+                replaced = true;
+                error = e;
+                pause();
+                continue;
+            }
+            if (Boolean.TRUE.equals(last.get("settled"))) {
+                return new Result(replaced || Boolean.TRUE.equals(last.get("navigated")),
+                        ((Number) last.get("requests")).intValue(), System.nanoTime() - armedAt);
+            }
+        }
+        if (!replaced && last != null && !Boolean.TRUE.equals(last.get("changed"))) {
+            throw new TimeoutException("No change on the page within " + timeout.toMillis() + " ms of arm(), last state " + last, error);
+        }
+        throw new TimeoutException("Page did not settle within " + timeout.toMillis() + " ms, last state " + last, error);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(REINSTALL_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the page to settle", e);
+        }
+    }
+
+    // ---------- Result ----------
+
+    public static final class Result {
+        // True when the postback loaded a new document, false for an in-place (UpdatePanel) update
+        public final boolean navigated;
+        // XHR/fetch requests seen on the settled document
+        public final int requests;
+        public final long elapsedNanos;
+
+        Result(boolean navigated, int requests, long elapsedNanos) {
+            this.navigated = navigated;
+            this.requests = requests;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return (navigated ? "postback" : "in-place update") + " settled in " + elapsedMillis()
+                    + " ms (" + requests + " requests)";
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.WebDriver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Navigation, Resource and Paint Timing of every page the pooled sessions show, per page and per
+ * kind of arrival, checked against budgets and against earlier runs.
+ *
+ * PageLoadStats takes the samples (CAPTURE_JS, one async script): after every get(), before a page
+ * is left through get() or quit(), and wherever a caller has waited for a page it reached by a click
+ * or postback (capture(driver): GridCrawler after each pager postback, Navigator after the menu).
+ * Each document is kept once, by performance.timeOrigin, with its latest sample. Its kind is how it
+ * was reached:
+ *   get       driver.get()
+ *   postback  same page as the document before it (a GridView pager or another form post)
+ *   click     any other page reached without get()
+ * Grid pages also carry the pager's active page number.
+ *
+ * Every document also carries the BrowserProfile of its session: FAST and FIDELITY load different
+ * things, so their numbers are never pooled.
+ *
+ * Off unless -Dperf.capture=true or the suite's <parameter name="perf.capture"> (testng-perf.xml)
+ * turns it on: the extra script after every get() and the stores are only paid for when someone
+ * reads the budgets. PageLoadStats keeps its cheaper per-profile totals either way.
+ *
+ * Budgets come from -Dperf.budgets (file or classpath resource, default perf-budgets.properties):
+ *   [<profile>.]<page>.<kind>.<metric>.<stat> = ms
+ *   profile fast | fidelity, or left out for every profile
+ *   page    as in the URL (LoginPage, RejectedPolicyHolders) or *
+ *   metric  ttfb | dcl | load | fcp        stat p50 | p95 | max
+ * PagePerfBudgets asserts them. At the end of the suite every document goes to test-output/perf/
+ * <run>.csv, the per-page percentiles are appended to test-output/perf-history.csv under the suite
+ * name and profile, and any p95 more than -Dperf.regressionPct (20) % and -Dperf.regressionMs (50)
+ * above the median of the last -Dperf.trendRuns (5) runs of the same suite and profile is flagged
+ * in the trend report.
+ */
+public final class PerfCapture {
+
+    // arguments[0]: ms to wait for the load event when the page is still loading (0 = read now)
+    static final String CAPTURE_JS =
+            "var done = arguments[arguments.length - 1], sent = false;"
+                    + "function read() {"
+                    + "  if (sent) return; sent = true;"
+                    + "  var p = window.performance;"
+                    + "  if (!p || !p.getEntriesByType) return done(null);"
+                    + "  var nav = p.getEntriesByType('navigation')[0], res = p.getEntriesByType('resource'),"
+                    + "      paint = p.getEntriesByType('paint');"
+                    + "  var bytes = nav ? (nav.transferSize || 0) : 0, slowest = null, fcp = -1;"
+                    + "  for (var i = 0; i < res.length; i++) {"
+                    + "    bytes += res[i].transferSize || 0;"
+                    + "    if (!slowest || res[i].duration > slowest.duration) slowest = res[i];"
+                    + "  }"
+                    + "  for (var j = 0; j < paint.length; j++) if (paint[j].name === 'first-contentful-paint') fcp = paint[j].startTime;"
+                    + "  var active = document.querySelector('td[colspan] table span');"
+                    + "  var grid = active ? parseInt(active.textContent, 10) : NaN;"
+                    + "  done({origin: p.timeOrigin, url: location.href, bytes: bytes, requests: res.length + 1,"
+                    + "    ttfb: nav ? nav.responseStart - nav.startTime : -1,"
+                    + "    dcl: nav && nav.domContentLoadedEventEnd > 0 ? nav.domContentLoadedEventEnd - nav.startTime : -1,"
+                    + "    load: nav && nav.loadEventEnd > 0 ? nav.loadEventEnd - nav.startTime : -1,"
+                    + "    fcp: fcp, gridPage: isNaN(grid) ? -1 : grid,"
+                    + "    slowest: slowest ? slowest.name : null, slowestMs: slowest ? slowest.duration : -1});"
+                    + "}"
+                    + "if (document.readyState === 'complete' || !arguments[0]) { setTimeout(read, 0); }"
+                    + "else { window.addEventListener('load', function () { setTimeout(read, 0); });"
+                    + "  setTimeout(read, arguments[0]); }";
+
+    static final String[] METRICS = {"ttfb", "dcl", "load", "fcp"};
+
+    private static final File RUNS = new File("test-output", "perf");
+    private static final File HISTORY = new File("test-output", "perf-history.csv");
+
+    private static final PerfCapture INSTANCE = new PerfCapture();
+
+    public static PerfCapture get() {
+        return INSTANCE;
+    }
+
+    private final Map<Double, Entry> documents = new ConcurrentHashMap<>();
+    private final String run = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+    private volatile String suite = "default";
+    private volatile boolean enabled = Boolean.getBoolean("perf.capture");
+
+    private PerfCapture() {
+    }
+
+    // After the caller has waited for a page reached by a click or a postback
+    public static void capture(WebDriver driver) {
+        PageLoadStats.get().capture(driver);
+    }
+
+    // Name the history rows of this run are filed under, and whether the suite asks for capture
+    // (DriverPoolListener); the -D property still wins
+    static void bindSuite(String name, String capture) {
+        if (name != null && !name.trim().isEmpty()) INSTANCE.suite = name.trim().replace(',', '_');
+        if (System.getProperty("perf.capture") == null && capture != null) INSTANCE.enabled = Boolean.parseBoolean(capture.trim());
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // One sample of one document; a later sample of the same document replaces it
+    void record(Map<String, Object> raw, String kind, BrowserProfile profile) {
+        if (!enabled) return;
+        Entry e = Entry.of(raw, kind, profile);
+        if (e != null) documents.put(e.origin, e);
+    }
+
+    // ---------- Budgets ----------
+
+    // Every budget the pages recorded so far break; empty when all are met
+    public List<String> budgetViolations() {
+        List<String> violations = new ArrayList<>();
+        Map<String, Map<String, LatencyHistogram>> stats = stats();
+        for (Map.Entry<String, Double> b : budgets().entrySet()) {
+            String[] k = budgetKey(b.getKey());
+            if (k == null) {
+                violations.add("budget " + b.getKey() + " is not [<profile>.]<page>.<kind>.<metric>.<stat>");
+                continue;
+            }
+            for (Map.Entry<String, Map<String, LatencyHistogram>> s : stats.entrySet()) {
+                String[] group = s.getKey().split(" ");
+                if (!(k[0].equals("*") || k[0].equals(group[0]))) continue;
+                if (!(k[1].equals("*") || k[1].equalsIgnoreCase(group[1])) || !k[2].equals(group[2])) continue;
+                LatencyHistogram h = s.getValue().get(k[3]);
+                if (h == null || h.count() == 0) continue;
+                double actual = stat(h, k[4]);
+                if (actual > b.getValue()) {
+                    violations.add(String.format("%s %s %s %.0f ms > %.0f ms (n=%d)", s.getKey(), k[3], k[4],
+                            actual, b.getValue(), h.count()));
+                }
+            }
+        }
+        return violations;
+    }
+
+    // Of "<page>" or "<page>.<kind>" entries, those without a single document recorded
+    public List<String> unsampled(Collection<String> required) {
+        List<String> missing = new ArrayList<>();
+        for (String r : required) {
+            String[] pageKind = r.trim().split("\\.");
+            boolean seen = false;
+            for (Entry e : documents.values()) {
+                if (e.page.equalsIgnoreCase(pageKind[0]) && (pageKind.length < 2 || e.kind.equals(pageKind[1]))) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (!seen) missing.add(r.trim());
+        }
+        return missing;
+    }
+
+    // Every page named in a budget (not *)
+    public Set<String> budgetedPages() {
+        Set<String> pages = new TreeSet<>();
+        for (String key : budgets().keySet()) {
+            String[] k = budgetKey(key);
+            if (k != null && !k[1].equals("*")) pages.add(k[1]);
+        }
+        return pages;
+    }
+
+    private static Map<String, Double> budgets() {
+        String source = System.getProperty("perf.budgets", "perf-budgets.properties");
+        Properties p = new Properties();
+        File f = new File(source);
+        try (InputStream in = f.isFile() ? new FileInputStream(f) : PerfCapture.class.getClassLoader().getResourceAsStream(source)) {
+            if (in == null) return Collections.emptyMap();
+            p.load(in);
+        } catch (IOException e) {
+            SuiteLog.info("Could not read budgets " + source + ": " + e.getMessage());
+        }
+        Map<String, Double> budgets = new TreeMap<>();
+        for (String key : p.stringPropertyNames()) budgets.put(key, Double.parseDouble(p.getProperty(key).trim()));
+        return budgets;
+    }
+
+    // {profile or *, page, kind, metric, stat}, or null when the key has neither 4 nor 5 parts
+    private static String[] budgetKey(String key) {
+        String[] k = key.split("\\.");
+        if (k.length == 4) return new String[] {"*", k[0], k[1], k[2], k[3]};
+        if (k.length != 5 || k[0].trim().isEmpty()) return null;
+        try {
+            k[0] = BrowserProfile.parse(k[0], null).label();
+        } catch (IllegalArgumentException unknownProfile) {
+            return null;
+        }
+        return k;
+    }
+
+    private static double stat(LatencyHistogram h, String stat) {
+        switch (stat) {
+            case "p50": return h.percentileMillis(0.50);
+            case "p95": return h.percentileMillis(0.95);
+            case "max": return h.maxNanos() / 1e6;
+            default: throw new IllegalArgumentException("Unknown budget statistic " + stat + ", expected p50, p95 or max");
+        }
+    }
+
+    // "<profile> <page> <kind>" -> metric -> histogram, over the documents recorded so far
+    private Map<String, Map<String, LatencyHistogram>> stats() {
+        Map<String, Map<String, LatencyHistogram>> stats = new TreeMap<>();
+        for (Entry e : documents.values()) {
+            Map<String, LatencyHistogram> m = stats.computeIfAbsent(e.group(), k -> new LinkedHashMap<>());
+            for (int i = 0; i < METRICS.length; i++) {
+                if (e.metrics[i] >= 0) {
+                    m.computeIfAbsent(METRICS[i], k -> new LatencyHistogram())
+                            .record(TimeUnit.MICROSECONDS.toNanos((long) (e.metrics[i] * 1000)));
+                }
+            }
+        }
+        return stats;
+    }
+
+    // ---------- Store + trend ----------
+
+    // Writes this run's documents and percentiles; returns the summary, the budget result and the trend
+    public String export() {
+        if (!enabled) return "Page timings: not captured (-Dperf.capture=true or testng-perf.xml)";
+        if (documents.isEmpty()) return "Page timings: no page sampled";
+        Map<String, Map<String, LatencyHistogram>> stats = stats();
+        writeRun();
+
+        StringBuilder sb = new StringBuilder("Page timings (" + documents.size() + " documents, " + new File(RUNS, run + ".csv") + "):\n");
+        sb.append(String.format("%-43s %5s %9s %9s %9s %9s%n", "profile / page / kind", "n", "ttfb p95", "dcl p95", "load p95", "fcp p95"));
+        for (Map.Entry<String, Map<String, LatencyHistogram>> s : stats.entrySet()) {
+            sb.append(String.format("%-43s %5d", s.getKey(), documentsOf(s.getKey())));
+            for (String metric : METRICS) {
+                LatencyHistogram h = s.getValue().get(metric);
+                sb.append(h == null ? String.format(" %9s", "-") : String.format(" %6.0f ms", h.percentileMillis(0.95)));
+            }
+            sb.append('\n');
+        }
+
+        List<String> violations = budgetViolations();
+        sb.append(violations.isEmpty() ? "Budgets: all met\n" : "Budgets broken:\n  " + String.join("\n  ", violations) + "\n");
+        sb.append(trend(stats));
+        appendHistory(stats);
+        return sb.toString();
+    }
+
+    private long documentsOf(String group) {
+        long n = 0;
+        for (Entry e : documents.values()) if (e.group().equals(group)) n++;
+        return n;
+    }
+
+    private void writeRun() {
+        RUNS.mkdirs();
+        File file = new File(RUNS, run + ".csv");
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.println("profile,page,kind,grid_page,ttfb_ms,dcl_ms,load_ms,fcp_ms,bytes,requests,slowest_ms,slowest,url");
+            for (Entry e : documents.values()) {
+                out.println(String.format("%s,%s,%s,%d,%.1f,%.1f,%.1f,%.1f,%d,%d,%.1f,%s,%s", e.profile, e.page, e.kind, e.gridPage,
+                        e.metrics[0], e.metrics[1], e.metrics[2], e.metrics[3], e.bytes, e.requests, e.slowestMs,
+                        csv(e.slowest), csv(e.url)));
+            }
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    // p95 of each profile/page/kind/metric against the median p95 of the previous runs of this suite that have it
+    private String trend(Map<String, Map<String, LatencyHistogram>> stats) {
+        int runs = Integer.getInteger("perf.trendRuns", 5);
+        double pct = Integer.getInteger("perf.regressionPct", 20) / 100.0;
+        long minMs = Long.getLong("perf.regressionMs", 50);
+        Map<String, List<Double>> history = history();
+
+        StringBuilder flagged = new StringBuilder();
+        int compared = 0;
+        for (Map.Entry<String, Map<String, LatencyHistogram>> s : stats.entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> m : s.getValue().entrySet()) {
+                List<Double> previous = history.get(suite + " " + s.getKey() + " " + m.getKey());
+                if (previous == null || previous.isEmpty()) continue;
+                List<Double> last = new ArrayList<>(previous.subList(Math.max(0, previous.size() - runs), previous.size()));
+                Collections.sort(last);
+                double median = last.get(last.size() / 2);
+                double now = m.getValue().percentileMillis(0.95);
+                compared++;
+                if (now > median * (1 + pct) && now - median > minMs) {
+                    flagged.append(String.format("  %s %s p95 %.0f ms, median of last %d runs %.0f ms (+%.0f%%)%n",
+                            s.getKey(), m.getKey(), now, last.size(), median, (now / median - 1) * 100));
+                }
+            }
+        }
+        if (compared == 0) return "Trend: no earlier run of " + suite + " in " + HISTORY + "\n";
+        return flagged.length() == 0
+                ? "Trend: no regression in " + compared + " page metrics against the last " + runs + " runs\n"
+                : "Trend: regressions against the last " + runs + " runs:\n" + flagged;
+    }
+
+    // "<suite> <profile> <page> <kind> <metric>" -> p95 of each earlier run, oldest first
+    private static Map<String, List<Double>> history() {
+        Map<String, List<Double>> history = new LinkedHashMap<>();
+        if (!HISTORY.isFile()) return history;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(HISTORY), StandardCharsets.UTF_8))) {
+            String line = in.readLine();
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split(",");
+                // Rows from before the suite and profile were recorded cannot be matched and are left out
+                if (f.length != 9) continue;
+                history.computeIfAbsent(f[1] + " " + f[2] + " " + f[3] + " " + f[4] + " " + f[5], k -> new ArrayList<>())
+                        .add(Double.parseDouble(f[8]));
+            }
+        } catch (IOException | NumberFormatException e) {
+            SuiteLog.info("Could not read " + HISTORY + ": " + e.getMessage());
+        }
+        return history;
+    }
+
+    private void appendHistory(Map<String, Map<String, LatencyHistogram>> stats) {
+        boolean header = !HISTORY.isFile();
+        HISTORY.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(HISTORY, true), StandardCharsets.UTF_8))) {
+            if (header) out.println("run,suite,profile,page,kind,metric,n,p50_ms,p95_ms");
+            for (Map.Entry<String, Map<String, LatencyHistogram>> s : stats.entrySet()) {
+                String[] group = s.getKey().split(" ");
+                for (Map.Entry<String, LatencyHistogram> m : s.getValue().entrySet()) {
+                    LatencyHistogram h = m.getValue();
+                    out.println(String.format("%s,%s,%s,%s,%s,%s,%d,%.1f,%.1f", run, suite, group[0], group[1], group[2],
+                            m.getKey(), h.count(), h.percentileMillis(0.50), h.percentileMillis(0.95)));
+                }
+            }
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + HISTORY + ": " + e.getMessage());
+        }
+    }
+
+    private static String csv(String s) {
+        return s == null ? "" : s.replace(',', ' ');
+    }
+
+    // ---------- Data ----------
+
+    private static final class Entry {
+        final double origin;
+        final String url;
+        final String profile;
+        final String page;
+        final String kind;
+        final int gridPage;
+        // Milliseconds from navigation start, in METRICS order; -1 when the browser did not report it
+        final double[] metrics;
+        final long bytes;
+        final long requests;
+        final String slowest;
+        final double slowestMs;
+
+        private Entry(double origin, String url, String profile, String kind, int gridPage, double[] metrics, long bytes,
+                      long requests, String slowest, double slowestMs) {
+            this.origin = origin;
+            this.url = url;
+            this.profile = profile;
+            this.page = pageName(url);
+            this.kind = kind;
+            this.gridPage = gridPage;
+            this.metrics = metrics;
+            this.bytes = bytes;
+            this.requests = requests;
+            this.slowest = slowest;
+            this.slowestMs = slowestMs;
+        }
+
+        static Entry of(Map<String, Object> m, String kind, BrowserProfile profile) {
+            if (m == null || !(m.get("origin") instanceof Number)) return null;
+            double[] metrics = new double[METRICS.length];
+            for (int i = 0; i < METRICS.length; i++) metrics[i] = number(m.get(METRICS[i])).doubleValue();
+            return new Entry(number(m.get("origin")).doubleValue(), String.valueOf(m.get("url")), profile.label(), kind,
+                    number(m.get("gridPage")).intValue(), metrics, number(m.get("bytes")).longValue(),
+                    number(m.get("requests")).longValue(), (String) m.get("slowest"), number(m.get("slowestMs")).doubleValue());
+        }
+
+        // "<profile> <page> <kind>": the unit budgets and the trend are applied to
+        String group() {
+            return profile + " " + page + " " + kind;
+        }
+
+        private static Number number(Object o) {
+            return o instanceof Number ? (Number) o : -1;
+        }
+    }
+
+    // Last path segment without extension: /Admin/RejectedPolicyHolders.aspx -> RejectedPolicyHolders
+    static String pageName(String url) {
+        String path;
+        try {
+            path = new URI(url).getPath();
+        } catch (URISyntaxException e) {
+            path = url;
+        }
+        if (path == null || path.isEmpty() || path.equals("/")) return "root";
+        if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name).replace(' ', '_').replace(',', '_');
+    }
+}
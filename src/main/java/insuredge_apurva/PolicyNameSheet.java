@@ -0,0 +1,171 @@
+package insuredge_apurva;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Spreadsheet-driven inputs for the Policy Name field of Pending Policy Holders (US17P4_09).
+ *
+ * The sheet has the columns Input and Expected; Expected lists the acceptable InputOutcome values,
+ * e.g. "ACCEPTED" or "BLOCKED|SANITIZED|ACCEPTED". Rows are streamed lazily (ExcelRowStream).
+ * Within a run they are typed into -Ddata.sessions sessions at once by a parallel data provider
+ * (keep the suite's data-provider-thread-count at least that high). TestNG drains a parallel
+ * provider's iterator up front, so Rows only hands out a few rows more than have finished (done()),
+ * which keeps the sheet streaming. Across runs, e.g. on several machines, data.shard picks every
+ * data.shards-th row:
+ *   -Ddata.file=testdata/policy-names.xlsx  -Ddata.sheet=<name, default first sheet>
+ *   -Ddata.sessions=1                       -Ddata.rowWaitSec=300 (longest wait for a row to finish)
+ *   -Ddata.shard=0 -Ddata.shards=1          -Ddata.queue=1024 (rows buffered ahead of the tests)
+ *
+ * Generate a sheet of any size with: java insuredge_apurva.PolicyNameSheet <file> <rows>
+ */
+public final class PolicyNameSheet {
+
+    public static final String INPUT = "Input";
+    public static final String EXPECTED = "Expected";
+
+    private static final String DEFAULT_FILE = "testdata/policy-names.xlsx";
+
+    private PolicyNameSheet() {
+    }
+
+    public static File file() {
+        return new File(System.getProperty("data.file", DEFAULT_FILE));
+    }
+
+    public static int shard() {
+        return Integer.getInteger("data.shard", 0);
+    }
+
+    public static int shards() {
+        return Integer.getInteger("data.shards", 1);
+    }
+
+    // Sessions the rows of one run are typed into at once
+    public static int sessions() {
+        return Math.max(1, Integer.getInteger("data.sessions", 1));
+    }
+
+    // Data-provider rows {excel row number, input, expected}; empty when the sheet does not exist.
+    // next() waits while inFlight rows are out without done(). The owner closes it (e.g. in
+    // @AfterClass) in case TestNG stops pulling rows before the end.
+    public static Rows rows(int inFlight) {
+        File file = file();
+        if (!file.isFile()) {
+            SuiteLog.info("No Policy Name sheet at " + file + ", spreadsheet rows skipped");
+            return new Rows(null, inFlight);
+        }
+        return new Rows(new ExcelRowStream(file, System.getProperty("data.sheet"),
+                shard(), shards(), Integer.getInteger("data.queue", 1024)), inFlight);
+    }
+
+    public static final class Rows implements Iterator<Object[]>, AutoCloseable {
+        private static final long ROW_WAIT_SEC = Long.getLong("data.rowWaitSec", 300);
+
+        private final ExcelRowStream stream;
+        private final Semaphore room;
+        // Rows handed out and not done yet; a retried row reports done twice but frees one slot
+        private final Set<Integer> out = ConcurrentHashMap.newKeySet();
+        // Set once a row never came back in time (its test was skipped): no more waiting
+        private boolean unbounded;
+
+        private Rows(ExcelRowStream stream, int inFlight) {
+            this.stream = stream;
+            this.room = new Semaphore(Math.max(1, inFlight));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stream == null) return false;
+            boolean more;
+            try {
+                more = stream.hasNext();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            // The reader thread is done by now; closing makes sure the sheet file is released
+            if (!more) close();
+            return more;
+        }
+
+        @Override
+        public Object[] next() {
+            if (stream == null) throw new NoSuchElementException();
+            ExcelRowStream.Row row = stream.next();
+            awaitRoom();
+            out.add(row.number);
+            return new Object[]{row.number, row.get(INPUT), row.get(EXPECTED)};
+        }
+
+        // Called by the test once a row is over, pass or fail
+        public void done(int row) {
+            if (out.remove(row)) room.release();
+        }
+
+        private void awaitRoom() {
+            if (unbounded) return;
+            try {
+                if (room.tryAcquire(ROW_WAIT_SEC, TimeUnit.SECONDS)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for sheet rows to finish", e);
+            }
+            unbounded = true;
+            SuiteLog.info("No sheet row finished within " + ROW_WAIT_SEC + " s (" + out.size()
+                    + " out), handing out the rest without waiting");
+        }
+
+        // Stops the reader thread, which closes the sheet's package
+        @Override
+        public void close() {
+            if (stream != null) stream.close();
+        }
+    }
+
+    // Result workbook for this shard, next to the other test output
+    public static ExcelResultWriter resultWriter() {
+        String suffix = shards() > 1 ? "-shard" + shard() : "";
+        return new ExcelResultWriter(new File("test-output", "policy-name-results" + suffix + ".xlsx"),
+                "Results", "Row", INPUT, EXPECTED, "Actual", "Outcome", "Pass");
+    }
+
+    // Acceptable outcomes for an input, by the same split as TC-01..03
+    public static String expectedFor(String input) {
+        if (input.matches("[A-Za-z0-9 ]+")) return "ACCEPTED";
+        if (!input.matches(".*[A-Za-z0-9].*")) return "BLOCKED|SANITIZED|ACCEPTED";
+        return "SANITIZED|ACCEPTED";
+    }
+
+    // ---------- Generator ----------
+
+    public static void main(String[] args) {
+        File file = new File(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(17);
+        String letters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        String specials = "@#$%^&*!~";
+
+        try (ExcelResultWriter out = new ExcelResultWriter(file, "PolicyName", INPUT, EXPECTED)) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder sb = new StringBuilder();
+                int kind = i % 3;
+                int length = 3 + random.nextInt(12);
+                for (int c = 0; c < length; c++) {
+                    // 0: alphanumeric, 1: specials only, 2: mixed (same split as TC-01..03)
+                    boolean special = kind == 1 || (kind == 2 && random.nextInt(4) == 0);
+                    String pool = special ? specials : letters;
+                    sb.append(pool.charAt(random.nextInt(pool.length())));
+                }
+                out.append(sb.toString(), expectedFor(sb.toString()));
+            }
+        }
+        System.out.println("Wrote " + rows + " Policy Name rows to " + file);
+    }
+}
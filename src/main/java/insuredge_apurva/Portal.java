@@ -0,0 +1,41 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.By;
+
+/*
+ * Shared constants for the InsurEdge admin portal (URLs, credentials, common locators).
+ *
+ * The base URL is switchable:
+ *   -Dportal.baseUrl=http://host:port   point the suite at any deployment
+ *   -Dportal.stub=true                  start the in-process PortalStub and run against it
+ * otherwise the live qeaskillhub site is used.
+ */
+public final class Portal {
+
+    public static final String DEFAULT_BASE_URL = "https://qeaskillhub.cognizant.com";
+
+    public static final String USERNAME = "admin_user";
+    public static final String PASSWORD = "testadmin";
+
+    public static final By txtUsername = By.id("txtUsername");
+    public static final By txtPassword = By.name("txtPassword");
+    public static final By sidebar = By.id("sidebar-nav");
+
+    private Portal() {
+    }
+
+    public static String baseUrl() {
+        String configured = System.getProperty("portal.baseUrl");
+        if (configured != null && !configured.isEmpty()) {
+            return configured.endsWith("/") ? configured.substring(0, configured.length() - 1) : configured;
+        }
+        if (Boolean.getBoolean("portal.stub")) {
+            return PortalStub.shared().baseUrl();
+        }
+        return DEFAULT_BASE_URL;
+    }
+
+    public static String loginUrl() {
+        return baseUrl() + "/LoginPage";
+    }
+}
@@ -0,0 +1,371 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * The admin portal over plain HTTP, authenticated with the cookies of a logged-in browser session.
+ *
+ * Pages are fetched with GET, and GridView paging is replayed as the browser would post it: the
+ * page's form fields (__VIEWSTATE, __EVENTVALIDATION, ...) plus __EVENTTARGET / __EVENTARGUMENT
+ * from the pager link. Responses are read through HtmlScanner while they arrive; only the h1, the
+ * form and the one grid asked for are kept, as a GridSnapshot like the browser-side capture.
+ *
+ * A redirect means the cookies no longer open the page (the portal bounces to LoginPage) and is an
+ * error rather than followed. Instances are immutable and can be shared by any number of threads.
+ *
+ * java.net.http.HttpClient would work too (Selenium 4 already needs Java 11); HttpURLConnection is
+ * used because the portal only speaks HTTP/1.1 and the crawl is a blocking fan-out on a fixed pool,
+ * so HttpClient's HTTP/2 and async API would buy nothing, and its keep-alive cache already reuses
+ * connections. Virtual threads, which would replace that pool, need Java 21.
+ */
+public final class PortalHttp {
+
+    private static final int TIMEOUT_MS = Integer.getInteger("http.timeoutMs", 30000);
+
+    private final String cookieHeader;
+
+    private PortalHttp(String cookieHeader) {
+        this.cookieHeader = cookieHeader;
+    }
+
+    // The session's cookies for the current origin (call it while the browser is on the portal)
+    public static PortalHttp from(WebDriver driver) {
+        StringBuilder sb = new StringBuilder();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            if (sb.length() > 0) sb.append("; ");
+            sb.append(cookie.getName()).append('=').append(cookie.getValue());
+        }
+        return new PortalHttp(sb.toString());
+    }
+
+    public Page get(String url, String gridId) {
+        return fetch(url, null, gridId);
+    }
+
+    // The page the pager link of `from` leads to
+    public Page postBack(Page from, GridSnapshot.PagerItem link) {
+        if (from.action == null) throw new IllegalStateException(from.url + " has no form to post back");
+        Map<String, String> form = new LinkedHashMap<>(from.fields);
+        form.put("__EVENTTARGET", link.target);
+        form.put("__EVENTARGUMENT", link.argument);
+        return fetch(from.action, form, from.gridId);
+    }
+
+    private Page fetch(String url, Map<String, String> form, String gridId) {
+        try {
+            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+            conn.setInstanceFollowRedirects(false);
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            conn.setRequestProperty("Cookie", cookieHeader);
+            conn.setRequestProperty("Accept", "text/html");
+            conn.setRequestProperty("Accept-Encoding", "gzip");
+            if (form != null) {
+                byte[] body = encode(form);
+                conn.setRequestMethod("POST");
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                conn.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+
+            int status = conn.getResponseCode();
+            if (status / 100 == 3) {
+                throw new IllegalStateException(url + " redirected to " + conn.getHeaderField("Location")
+                        + " (session no longer logged in?)");
+            }
+            if (status != 200) throw new IllegalStateException(url + " answered HTTP " + status);
+
+            InputStream in = conn.getInputStream();
+            if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) in = new GZIPInputStream(in);
+            PageReader reader = new PageReader(gridId);
+            try (Reader body = new InputStreamReader(in, charset(conn.getContentType()))) {
+                HtmlScanner.scan(body, reader);
+            }
+            return reader.page(url);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + url, e);
+        }
+    }
+
+    private static byte[] encode(Map<String, String> form) throws UnsupportedEncodingException {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : form.entrySet()) {
+            if (sb.length() > 0) sb.append('&');
+            sb.append(URLEncoder.encode(e.getKey(), "UTF-8")).append('=')
+                    .append(URLEncoder.encode(e.getValue() == null ? "" : e.getValue(), "UTF-8"));
+        }
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String part : contentType.split(";")) {
+                String p = part.trim();
+                if (p.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                    try {
+                        return Charset.forName(p.substring(8).replace("\"", ""));
+                    } catch (IllegalArgumentException unknown) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    // ---------- Parsed page ----------
+
+    public static final class Page {
+        public final String url;
+        public final String title;
+        public final String gridId;
+        // The grid, or null when the page has no table with that id
+        public final GridSnapshot grid;
+        final String action;
+        final Map<String, String> fields;
+
+        Page(String url, String title, String gridId, GridSnapshot grid, String action, Map<String, String> fields) {
+            this.url = url;
+            this.title = title;
+            this.gridId = gridId;
+            this.grid = grid;
+            this.action = action;
+            this.fields = Collections.unmodifiableMap(fields);
+        }
+
+        @Override
+        public String toString() {
+            return title + " " + (grid == null ? "(no grid)" : grid.toString());
+        }
+    }
+
+    // Keeps what CAPTURE_JS reads: header cells, data rows, the pager row of the grid table
+    private static final class PageReader implements HtmlScanner.Handler {
+        private final String gridId;
+
+        private String title;
+        private StringBuilder h1;
+        private String action;
+        private boolean inForm;
+        private final Map<String, String> fields = new LinkedHashMap<>();
+
+        // Table nesting inside the grid: 0 outside, 1 in the grid, 2+ in the pager's inner table
+        private int depth;
+        private boolean found;
+        private final List<String> headers = new ArrayList<>();
+        private final List<List<String>> columns = new ArrayList<>();
+        private final List<String> cells = new ArrayList<>();
+        private boolean headerRow;
+        private boolean pagerRow;
+        private StringBuilder cell;
+        private List<GridSnapshot.PagerItem> pager;
+        private StringBuilder item;
+        private String itemHref;
+
+        PageReader(String gridId) {
+            this.gridId = gridId;
+        }
+
+        @Override
+        public void start(String tag, Map<String, String> a) {
+            switch (tag) {
+                case "h1":
+                    if (title == null) h1 = new StringBuilder();
+                    return;
+                case "form":
+                    if (action == null) {
+                        action = a.get("action");
+                        inForm = true;
+                    }
+                    return;
+                case "input":
+                    if (inForm) field(a);
+                    return;
+                case "table":
+                    if (depth > 0) depth++;
+                    else if (!found && gridId.equals(a.get("id"))) {
+                        depth = 1;
+                        found = true;
+                    }
+                    return;
+                case "tr":
+                    if (depth == 1) {
+                        cells.clear();
+                        headerRow = false;
+                        pagerRow = false;
+                    }
+                    return;
+                case "th":
+                case "td":
+                    if (depth == 1) {
+                        if (cells.isEmpty() && tag.equals("th")) headerRow = true;
+                        if (cells.isEmpty() && !headerRow && colspan(a) > 1) {
+                            pagerRow = true;
+                            pager = new ArrayList<>();
+                        }
+                        cell = new StringBuilder();
+                    } else if (depth == 2 && pagerRow && tag.equals("td")) {
+                        item = new StringBuilder();
+                        itemHref = null;
+                    }
+                    return;
+                case "a":
+                    if (depth == 2 && item != null && itemHref == null) itemHref = a.containsKey("href") ? a.get("href") : "";
+                    return;
+                default:
+            }
+        }
+
+        @Override
+        public void end(String tag) {
+            switch (tag) {
+                case "h1":
+                    if (h1 != null && title == null) title = norm(h1);
+                    h1 = null;
+                    return;
+                case "form":
+                    inForm = false;
+                    return;
+                case "table":
+                    if (depth > 0) depth--;
+                    return;
+                case "th":
+                case "td":
+                    if (depth == 1 && cell != null) {
+                        cells.add(norm(cell));
+                        cell = null;
+                    } else if (depth == 2 && item != null && tag.equals("td")) {
+                        pager.add(pagerItem(norm(item), itemHref));
+                        item = null;
+                    }
+                    return;
+                case "tr":
+                    if (depth == 1) row();
+                    return;
+                default:
+            }
+        }
+
+        @Override
+        public void text(String text) {
+            if (h1 != null) h1.append(text);
+            if (item != null) item.append(text);
+            else if (cell != null && !pagerRow) cell.append(text);
+        }
+
+        private void row() {
+            if (headerRow) {
+                headers.clear();
+                columns.clear();
+                for (String h : cells) {
+                    headers.add(h);
+                    columns.add(new ArrayList<String>());
+                }
+            } else if (!pagerRow && !columns.isEmpty() && cells.size() == columns.size()) {
+                for (int c = 0; c < cells.size(); c++) columns.get(c).add(cells.get(c));
+            }
+            cells.clear();
+        }
+
+        // What the browser would submit: hidden and text fields, checked boxes, not the buttons
+        private void field(Map<String, String> a) {
+            String name = a.get("name");
+            if (name == null) return;
+            String type = a.containsKey("type") ? a.get("type").toLowerCase(Locale.ROOT) : "text";
+            switch (type) {
+                case "submit":
+                case "button":
+                case "image":
+                case "reset":
+                case "file":
+                    return;
+                case "checkbox":
+                case "radio":
+                    if (!a.containsKey("checked")) return;
+                    fields.put(name, a.containsKey("value") ? a.get("value") : "on");
+                    return;
+                default:
+                    fields.put(name, a.containsKey("value") ? a.get("value") : "");
+            }
+        }
+
+        Page page(String url) {
+            GridSnapshot grid = found ? GridSnapshot.parsed(gridId, headers, columns,
+                    pager == null ? Collections.<GridSnapshot.PagerItem>emptyList() : pager) : null;
+            String target;
+            try {
+                target = action == null ? null : new URL(new URL(url), action).toString();
+            } catch (IOException e) {
+                target = null;
+            }
+            return new Page(url, title, gridId, grid, target, fields);
+        }
+
+        private static int colspan(Map<String, String> a) {
+            try {
+                return a.containsKey("colspan") ? Integer.parseInt(a.get("colspan").trim()) : 1;
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+
+        // Same as the capture script: href="javascript:__doPostBack('target','argument')"
+        private static GridSnapshot.PagerItem pagerItem(String label, String href) {
+            String target = null;
+            String argument = null;
+            if (href != null) {
+                int open = href.indexOf("__doPostBack('");
+                if (open >= 0) {
+                    int t0 = open + 14;
+                    int t1 = href.indexOf("','", t0);
+                    int a1 = t1 < 0 ? -1 : href.indexOf("')", t1 + 3);
+                    if (a1 >= 0) {
+                        target = href.substring(t0, t1);
+                        argument = href.substring(t1 + 3, a1);
+                    }
+                }
+            }
+            return new GridSnapshot.PagerItem(label, href != null, target, argument);
+        }
+
+        // textContent with runs of whitespace (nbsp included, as in JS \s) collapsed and trimmed
+        private static String norm(CharSequence s) {
+            StringBuilder out = new StringBuilder(s.length());
+            boolean space = false;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c) || Character.isSpaceChar(c) || c == '\uFEFF') {
+                    space = out.length() > 0;
+                } else {
+                    if (space) out.append(' ');
+                    space = false;
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package insuredge_apurva;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * In-process HTTP stand-in for the InsurEdge admin portal.
+ *
+ * Serves LoginPage, the Dashboard and the Pending / Rejected Policy Holders pages with the DOM
+ * shape the US17P4_* locators expect: the sidebar-nav / policyHolder-nav menu, the h1 title and
+ * breadcrumb, and an ASP.NET-style GridView (header row of th, 10 data rows, td[@colspan='11']
+ * pager row) paged through __doPostBack form posts with PageButtonCount=10 and "..." group links.
+ *
+ * The dataset size and a per-response latency are configurable, so suite timings are
+ * deterministic and pagination can be exercised at 10k+ rows:
+ *   -Dportal.stub=true -Dstub.rows=12000 -Dstub.latencyMs=25
+ * A ?pageSize=N query on the grid pages renders N rows per page (used by the JMH benchmarks).
+ */
+public final class PortalStub {
+
+    public static final int PAGE_SIZE = 10;
+    public static final int PAGE_BUTTON_COUNT = 10;
+
+    public static final String DASHBOARD_PATH = "/Admin/Dashboard";
+    public static final String PENDING_PATH = "/Admin/PendingPolicyHolders";
+    public static final String REJECTED_PATH = "/Admin/RejectedPolicyHolders";
+
+    public static final String[] HEADERS = {
+            "Customer Name", "Mobile Number", "Email", "Policy Name", "Main Category", "Sub Category",
+            "Sum Assured", "Premium", "Tenure", "Applied On", "Status"
+    };
+
+    private static final String AUTH_COOKIE = ".ASPXAUTH";
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Diya", "Ishaan", "Kavya", "Rohan", "Meera", "Vikram", "Anaya", "Kabir", "Sara"};
+    private static final String[] LAST_NAMES = {"Sharma", "Iyer", "Patel", "Reddy", "Nair", "Gupta", "Das", "Menon", "Joshi", "Khan"};
+    private static final String[] POLICIES = {"Health Plus", "Term Secure", "Motor Shield", "Home Guard", "Travel Safe"};
+    private static final String[][] CATEGORIES = {
+            {"Health", "Individual"}, {"Life", "Term"}, {"Motor", "Four Wheeler"}, {"Property", "Home"}, {"Travel", "International"}
+    };
+
+    private static volatile PortalStub shared;
+
+    // The stub shared by the suite when -Dportal.stub=true; started on first use
+    public static PortalStub shared() {
+        if (shared == null) {
+            synchronized (PortalStub.class) {
+                if (shared == null) {
+                    PortalStub stub = new PortalStub(Integer.getInteger("stub.rows", 120), Long.getLong("stub.latencyMs", 0));
+                    stub.start(Integer.getInteger("stub.port", 0));
+                    shared = stub;
+                }
+            }
+        }
+        return shared;
+    }
+
+    // Stops the shared stub if one was started (its dispatcher thread would keep the JVM alive)
+    public static void stopShared() {
+        synchronized (PortalStub.class) {
+            if (shared != null) {
+                shared.stop();
+                shared = null;
+            }
+        }
+    }
+
+    private final int rows;
+    private volatile long latencyMs;
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PortalStub(int rows, long latencyMs) {
+        if (rows < 0) throw new IllegalArgumentException("rows must be >= 0 but was " + rows);
+        this.rows = rows;
+        this.latencyMs = latencyMs;
+    }
+
+    // ---------- Lifecycle ----------
+
+    public synchronized PortalStub start(int port) {
+        if (server != null) return this;
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start portal stub on port " + port, e);
+        }
+        executor = Executors.newFixedThreadPool(16, r -> {
+            Thread t = new Thread(r, "portal-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+    }
+
+    public String baseUrl() {
+        if (server == null) throw new IllegalStateException("Portal stub is not started");
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int pageCount() {
+        return pageCount(PAGE_SIZE);
+    }
+
+    private int pageCount(int pageSize) {
+        return Math.max(1, (rows + pageSize - 1) / pageSize);
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    // Simulates the server dropping every login (expired forms-auth ticket, app pool recycle)
+    public void invalidateSessions() {
+        sessions.clear();
+    }
+
+    // ---------- Routing ----------
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            if (latencyMs > 0) Thread.sleep(latencyMs);
+
+            String path = ex.getRequestURI().getPath();
+            boolean post = "POST".equalsIgnoreCase(ex.getRequestMethod());
+            Map<String, String> form = post ? readForm(ex) : new HashMap<String, String>();
+
+            if (path.equals("/") || path.equalsIgnoreCase("/LoginPage")) {
+                if (post) {
+                    login(ex, form);
+                } else {
+                    send(ex, 200, loginPage(null));
+                }
+                return;
+            }
+            if (path.equals("/favicon.ico")) {
+                send(ex, 404, "");
+                return;
+            }
+            if (!isAuthenticated(ex)) {
+                redirect(ex, "/LoginPage");
+                return;
+            }
+
+            if (path.equalsIgnoreCase(DASHBOARD_PATH)) {
+                send(ex, 200, dashboardPage());
+            } else if (path.equalsIgnoreCase(PENDING_PATH)) {
+                send(ex, 200, gridPage("Pending Policy Holders", PENDING_PATH, "gvPendingHolders", "Pending",
+                        form, pageSize(ex), true));
+            } else if (path.equalsIgnoreCase(REJECTED_PATH)) {
+                send(ex, 200, gridPage("Rejected Policy Holders", REJECTED_PATH, "gvRejectedHolders", "Rejected",
+                        form, pageSize(ex), false));
+            } else {
+                send(ex, 404, layout("Not Found", "<h1>404</h1>", ""));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // A broken handler answers 500 rather than dropping the connection (a hang or reset to the test)
+            SuiteLog.info("Portal stub: " + ex.getRequestMethod() + " " + ex.getRequestURI() + " failed: " + e);
+            try {
+                send(ex, 500, layout("Server Error", "<h1>500</h1><pre>" + escape(String.valueOf(e)) + "</pre>", ""));
+            } catch (IOException | RuntimeException alreadySent) {
+                // The response had started; closing the exchange is all that is left
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void login(HttpExchange ex, Map<String, String> form) throws IOException {
+        if (Portal.USERNAME.equals(form.get("txtUsername")) && Portal.PASSWORD.equals(form.get("txtPassword"))) {
+            String token = UUID.randomUUID().toString().replace("-", "");
+            sessions.add(token);
+            ex.getResponseHeaders().add("Set-Cookie", AUTH_COOKIE + "=" + token + "; Path=/; HttpOnly");
+            redirect(ex, DASHBOARD_PATH);
+        } else {
+            send(ex, 200, loginPage("Invalid username or password."));
+        }
+    }
+
+    private boolean isAuthenticated(HttpExchange ex) {
+        List<String> headers = ex.getRequestHeaders().get("Cookie");
+        if (headers == null) return false;
+        for (String header : headers) {
+            for (String part : header.split(";")) {
+                String[] kv = part.trim().split("=", 2);
+                if (kv.length == 2 && kv[0].equals(AUTH_COOKIE) && sessions.contains(kv[1])) return true;
+            }
+        }
+        return false;
+    }
+
+    // ---------- Pages ----------
+
+    private static String loginPage(String error) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html><html><head><meta charset='utf-8'><title>InsurEdge - Login</title></head><body>")
+                .append("<form method='post' action='/LoginPage' id='form1'><div class='login-card'><h1>InsurEdge</h1>");
+        if (error != null) sb.append("<div class='alert'>").append(escape(error)).append("</div>");
+        sb.append("<input name='txtUsername' type='text' id='txtUsername' placeholder='Username'>")
+                .append("<input name='txtPassword' type='password' id='txtPassword' placeholder='Password'>")
+                .append("<input type='submit' name='btnLogin' value='Login' id='btnLogin'>")
+                .append("</div></form></body></html>");
+        return sb.toString();
+    }
+
+    private static String dashboardPage() {
+        String title = "<div class='pagetitle'><h1>Dashboard</h1><nav><ol class='breadcrumb'>"
+                + "<li class='breadcrumb-item'><a href='" + DASHBOARD_PATH + "'>Home</a></li>"
+                + "<li class='breadcrumb-item active'>Dashboard</li></ol></nav></div>";
+        return layout("Dashboard", title + "<section class='dashboard'><p>Welcome, admin.</p></section>", "");
+    }
+
+    private String gridPage(String title, String path, String gridName, String status,
+                            Map<String, String> form, int pageSize, boolean policyNameFilter) {
+        int page = currentPage(form, pageSize);
+        String gridId = "ContentPlaceHolder_Admin_" + gridName;
+        String uniqueId = "ctl00$ContentPlaceHolder_Admin$" + gridName;
+
+        StringBuilder sb = new StringBuilder(8192);
+        sb.append("<div class='pagetitle'><h1>").append(title).append("</h1><nav><ol class='breadcrumb'>")
+                .append("<li class='breadcrumb-item'><a href='").append(DASHBOARD_PATH).append("'>Dashboard</a></li>")
+                .append("<li class='breadcrumb-item active'>").append(title).append("</li></ol></nav></div>");
+
+        String action = pageSize == PAGE_SIZE ? path : path + "?pageSize=" + pageSize;
+        sb.append("<form method='post' action='").append(action).append("' id='form1'>")
+                .append("<input type='hidden' name='__EVENTTARGET' id='__EVENTTARGET' value=''>")
+                .append("<input type='hidden' name='__EVENTARGUMENT' id='__EVENTARGUMENT' value=''>")
+                .append("<input type='hidden' name='__VIEWSTATE' id='__VIEWSTATE' value='").append(viewState(page)).append("'>")
+                .append("<input type='hidden' name='__VIEWSTATEGENERATOR' id='__VIEWSTATEGENERATOR' value='C2EE9ABB'>")
+                .append("<input type='hidden' name='__EVENTVALIDATION' id='__EVENTVALIDATION' value='").append(viewState(page)).append("'>");
+
+        if (policyNameFilter) {
+            sb.append("<div class='search'><input name='ctl00$ContentPlaceHolder_Admin$txtPolicyName' type='text' ")
+                    .append("id='ContentPlaceHolder_Admin_txtPolicyName' class='form-control' placeholder='Search by Policy Name'></div>");
+        }
+
+        sb.append("<div class='table-responsive'><table class='table' cellspacing='0' rules='all' border='1' id='")
+                .append(gridId).append("' style='border-collapse:collapse;'><tbody><tr>");
+        for (String h : HEADERS) sb.append("<th scope='col'>").append(h).append("</th>");
+        sb.append("</tr>");
+
+        int first = (page - 1) * pageSize;
+        int last = Math.min(rows, first + pageSize);
+        for (int i = first; i < last; i++) {
+            sb.append("<tr>");
+            for (String cell : row(i, status)) sb.append("<td>").append(escape(cell)).append("</td>");
+            sb.append("</tr>");
+        }
+
+        if (pageCount(pageSize) > 1) appendPager(sb, page, pageCount(pageSize), uniqueId);
+        sb.append("</tbody></table></div></form>");
+
+        String script = "<script>function __doPostBack(t,a){var f=document.getElementById('form1');"
+                + "f.__EVENTTARGET.value=t;f.__EVENTARGUMENT.value=a;f.submit();}</script>";
+        return layout(title, sb.toString(), script);
+    }
+
+    // Numeric pager as GridView renders it: current page is a span, other pages and "..." are postback links
+    private static void appendPager(StringBuilder sb, int page, int pages, String uniqueId) {
+        int groupStart = ((page - 1) / PAGE_BUTTON_COUNT) * PAGE_BUTTON_COUNT + 1;
+        int groupEnd = Math.min(pages, groupStart + PAGE_BUTTON_COUNT - 1);
+
+        sb.append("<tr class='pagination-ys'><td colspan='").append(HEADERS.length).append("'><table><tbody><tr>");
+        if (groupStart > 1) appendPagerLink(sb, uniqueId, groupStart - 1, "...");
+        for (int p = groupStart; p <= groupEnd; p++) {
+            if (p == page) {
+                sb.append("<td><span>").append(p).append("</span></td>");
+            } else {
+                appendPagerLink(sb, uniqueId, p, String.valueOf(p));
+            }
+        }
+        if (groupEnd < pages) appendPagerLink(sb, uniqueId, groupEnd + 1, "...");
+        sb.append("</tr></tbody></table></td></tr>");
+    }
+
+    private static void appendPagerLink(StringBuilder sb, String uniqueId, int page, String label) {
+        sb.append("<td><a href=\"javascript:__doPostBack('").append(uniqueId).append("','Page$").append(page)
+                .append("')\">").append(label).append("</a></td>");
+    }
+
+    private static String layout(String title, String content, String script) {
+        return "<!DOCTYPE html><html><head><meta charset='utf-8'><title>InsurEdge - " + title + "</title>"
+                + "<style>"
+                + "body{font-family:sans-serif;margin:0;display:flex}"
+                + ".sidebar{width:240px;min-height:100vh;background:#f6f9ff}"
+                + ".sidebar ul{list-style:none;padding-left:12px}"
+                + ".bi{display:inline-block;width:12px;height:12px;margin:0 4px;background:#4154f1}"
+                + "#main{flex:1;padding:16px;min-width:0}"
+                + ".table-responsive{overflow-x:auto}"
+                + "th{font-weight:700;white-space:nowrap;padding:4px 8px}"
+                + "td{white-space:nowrap;padding:4px 8px}"
+                + ".breadcrumb{list-style:none;display:flex;padding:0}"
+                + ".breadcrumb-item+.breadcrumb-item::before{content:'/';padding:0 6px}"
+                + "</style>" + script + "</head><body>"
+                + sidebar()
+                + "<main id='main' class='main'>" + content + "</main>"
+                + "</body></html>";
+    }
+
+    // Menu positions match the suite's locators: li[5] is Policy Holder's, its li[3]/li[4] are Pending/Rejected
+    private static String sidebar() {
+        return "<aside id='sidebar' class='sidebar'><ul class='sidebar-nav' id='sidebar-nav'>"
+                + "<li class='nav-item'><a class='nav-link' href='" + DASHBOARD_PATH + "'><i class='bi bi-grid'></i><span>Dashboard</span></a></li>"
+                + "<li class='nav-item'><a class='nav-link collapsed' href='#'><i class='bi bi-tags'></i><span>Categories</span></a></li>"
+                + "<li class='nav-item'><a class='nav-link collapsed' href='#'><i class='bi bi-journal'></i><span>Policies</span></a></li>"
+                + "<li class='nav-item'><a class='nav-link collapsed' href='#'><i class='bi bi-person'></i><span>Customers</span></a></li>"
+                + "<li class='nav-item'><a class='nav-link collapsed' href='#' onclick=\"var m=document.getElementById('policyHolder-nav');"
+                + "m.style.display=m.style.display==='block'?'none':'block';return false;\">"
+                + "<i class='bi bi-people'></i><span>Policy Holder's</span><i class='bi bi-chevron-down'></i></a>"
+                + "<ul id='policyHolder-nav' class='nav-content' style='display:none'>"
+                + "<li><a href='#'><span>All Policy Holders</span></a></li>"
+                + "<li><a href='#'><span>Approved Policy Holders</span></a></li>"
+                + "<li><a href='" + PENDING_PATH + "'><span>Pending Policy Holders</span></a></li>"
+                + "<li><a href='" + REJECTED_PATH + "'><span>Rejected Policy Holders</span></a></li>"
+                + "</ul></li>"
+                + "</ul></aside>";
+    }
+
+    // ---------- Dataset ----------
+
+    // Deterministic row content; every row has a distinct customer name so page changes are visible
+    static String[] row(int index, String status) {
+        int n = index + 1;
+        String first = FIRST_NAMES[index % FIRST_NAMES.length];
+        String last = LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+        int policy = index % POLICIES.length;
+        return new String[]{
+                first + " " + last + " " + n,
+                String.valueOf(9000000000L + n),
+                first.toLowerCase() + "." + last.toLowerCase() + n + "@example.com",
+                POLICIES[policy],
+                CATEGORIES[policy][0],
+                CATEGORIES[policy][1],
+                String.valueOf(100000 + (n % 50) * 50000),
+                String.valueOf(1000 + (n % 40) * 250),
+                (5 + n % 26) + " Years",
+                String.format("%02d/%02d/2025", 1 + n % 28, 1 + n % 12),
+                status
+        };
+    }
+
+    private int currentPage(Map<String, String> form, int pageSize) {
+        int page = 1;
+        String state = form.get("__VIEWSTATE");
+        if (state != null && !state.isEmpty()) {
+            String decoded = new String(Base64.getDecoder().decode(state), StandardCharsets.UTF_8);
+            if (decoded.startsWith("page=")) page = Integer.parseInt(decoded.substring(5));
+        }
+        String arg = form.get("__EVENTARGUMENT");
+        if (arg != null && arg.startsWith("Page$")) {
+            String target = arg.substring(5);
+            if (target.equals("First")) page = 1;
+            else if (target.equals("Last")) page = pageCount(pageSize);
+            else if (target.equals("Next")) page++;
+            else if (target.equals("Prev")) page--;
+            else page = Integer.parseInt(target);
+        }
+        return Math.max(1, Math.min(pageCount(pageSize), page));
+    }
+
+    // Rows per grid page: PAGE_SIZE unless the request asks for ?pageSize=N
+    private static int pageSize(HttpExchange ex) {
+        String query = ex.getRequestURI().getQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith("pageSize=")) return Math.max(1, Integer.parseInt(pair.substring(9)));
+            }
+        }
+        return PAGE_SIZE;
+    }
+
+    private static String viewState(int page) {
+        return Base64.getEncoder().encodeToString(("page=" + page).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ---------- HTTP helpers ----------
+
+    private static Map<String, String> readForm(HttpExchange ex) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
+        }
+        Map<String, String> form = new HashMap<>();
+        String body = new String(buf.toByteArray(), StandardCharsets.UTF_8);
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) continue;
+            String[] kv = pair.split("=", 2);
+            form.put(URLDecoder.decode(kv[0], "UTF-8"), kv.length > 1 ? URLDecoder.decode(kv[1], "UTF-8") : "");
+        }
+        return form;
+    }
+
+    private static void redirect(HttpExchange ex, String location) throws IOException {
+        ex.getResponseHeaders().add("Location", location);
+        ex.sendResponseHeaders(302, -1);
+    }
+
+    private static void send(HttpExchange ex, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        ex.getResponseHeaders().add("Cache-Control", "no-cache, no-store");
+        ex.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '&': sb.append("&amp;"); break;
+                case '\'': sb.append("&#39;"); break;
+                case '"': sb.append("&quot;"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Standalone: java insuredge_apurva.PortalStub [port] [rows] [latencyMs]
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8085;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        PortalStub stub = new PortalStub(rows, latency).start(port);
+        System.out.println("InsurEdge portal stub on " + stub.baseUrl() + " (" + rows + " rows, "
+                + stub.pageCount() + " pages, " + latency + " ms latency)");
+    }
+}
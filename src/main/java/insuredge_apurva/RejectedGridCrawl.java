@@ -0,0 +1,48 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.support.ui.*;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.time.Duration;
+import java.util.Collections;
+
+// Crawler mode: every row on every page of the Rejected grid (run via testng-crawl.xml)
+// Reads text only, so it runs headless without images and fonts unless overridden
+@BrowserProfile.Use(BrowserProfile.FAST)
+public class RejectedGridCrawl {
+
+    private WebDriver driver;
+    private WebDriverWait wait;
+
+    @BeforeClass(alwaysRun = true)
+    public void setup() {
+        driver = DriverFactory.start(getClass());
+        wait = new WebDriverWait(driver, Duration.ofSeconds(12));
+
+        // NAVIGATE TO REJECTED POLICY HOLDERS
+        Navigator.to(driver, Navigator.Page.REJECTED_POLICY_HOLDERS);
+        wait.until(ExpectedConditions.presenceOfElementLocated(By.id(GridSnapshot.REJECTED_GRID)));
+    }
+
+    @Test(description = "Every row on every page of the Rejected grid says 'Rejected' and the pager is consistent")
+    public void crawlAllRejectedPages() {
+        // -Dcrawl.sessions=N splits the page range across N browser sessions
+        int sessions = Integer.getInteger("crawl.sessions", 1);
+
+        GridCrawler crawler = new GridCrawler(GridSnapshot.REJECTED_GRID,
+                Collections.singletonList(GridCrawler.columnEquals(GridSnapshot.STATUS, "Rejected")),
+                Duration.ofSeconds(30));
+        GridCrawler.Report report = crawler.crawl(driver, sessions);
+
+        SuiteLog.info("Crawl (" + sessions + " session(s)): " + report);
+        Assert.assertEquals(report.violations(), 0, "Crawl found violations: " + report.examples());
+        Assert.assertEquals(report.pagesVisited(), report.pageCount(), "Not every page was visited!");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        DriverFactory.stop();
+    }
+}
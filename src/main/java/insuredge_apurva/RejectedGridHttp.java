@@ -0,0 +1,58 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.*;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// HTTP mode: the data-only checks on every page of the Rejected grid without rendering (run via testng-crawl.xml)
+// The browser session supplies the login cookies and opens a sample of pages to cross-check
+// -Dhttp.threads=N parallel postbacks (16), -Dhttp.sample=N pages cross-checked in the browser (5)
+@BrowserProfile.Use(BrowserProfile.FAST)
+public class RejectedGridHttp {
+
+    private static final List<String> HEADERS = Arrays.asList(
+            "Customer Name", "Mobile Number", "Email", "Policy Name", "Main Category", "Sub Category",
+            "Sum Assured", "Premium", "Tenure", "Applied On", "Status");
+
+    private WebDriver driver;
+    private HttpGridCrawler crawler;
+    private String rejectedUrl;
+
+    @BeforeClass(alwaysRun = true)
+    public void setup() {
+        driver = DriverFactory.start(getClass());
+        Navigator.to(driver, Navigator.Page.REJECTED_POLICY_HOLDERS);
+        rejectedUrl = driver.getCurrentUrl();
+
+        crawler = new HttpGridCrawler(GridSnapshot.REJECTED_GRID, "Rejected Policy Holders", HEADERS,
+                Collections.singletonList(GridCrawler.columnEquals(GridSnapshot.STATUS, "Rejected")),
+                Integer.getInteger("http.threads", 16), Integer.getInteger("http.sample", 5));
+    }
+
+    @Test(priority = 1, description = "Title, headers, Status and pager of every Rejected page, fetched over HTTP")
+    public void tc1_everyPageOverHttp() {
+        GridCrawler.Report report = crawler.crawl(PortalHttp.from(driver), rejectedUrl);
+
+        SuiteLog.info("HTTP crawl: " + report);
+        Assert.assertEquals(report.violations(), 0, "HTTP crawl found violations: " + report.examples());
+        Assert.assertEquals(report.pagesVisited(), report.pageCount(), "Not every page was fetched!");
+    }
+
+    @Test(priority = 2, dependsOnMethods = "tc1_everyPageOverHttp",
+            description = "Sampled pages read over HTTP are identical in the browser")
+    public void tc2_sampleMatchesBrowser() {
+        List<String> problems = crawler.crossCheck(driver);
+
+        SuiteLog.info("HTTP cross-check: " + crawler.sample().keySet() + " compared in the browser");
+        Assert.assertTrue(problems.isEmpty(), "HTTP and browser disagree: " + problems);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        DriverFactory.stop();
+    }
+}
@@ -0,0 +1,8 @@
+package insuredge_apurva;
+
+// Implemented by test classes whose failed methods RetryAnalyzer may run again in the same session
+public interface RestorableState {
+
+    // Brings the session back to the page the class's tests start from
+    void restoreState();
+}
@@ -0,0 +1,72 @@
+package insuredge_apurva;
+
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Re-runs a failed test method in place, in the same browser session: no new Chrome, no login and
+ * none of the dependsOnMethods chain before it. Before each attempt it waits with exponential
+ * backoff and, when the test class implements RestorableState, lets it restore its start page.
+ * TestNG asks for the retry after the invocation listeners, so StepScheduler has already let go of
+ * the class's session by then; the restore takes that lock again so it cannot reload the page under
+ * another step of the DAG.
+ *
+ *   -Dretry.max=2             attempts per method (0 disables retries)
+ *   -Dretry.budget=20         attempts for the whole run, so a broken environment fails fast
+ *   -Dretry.backoffMs=500     first wait, doubled per attempt up to -Dretry.backoffMaxMs=8000
+ *
+ * RetryListener attaches it to every @Test and keeps the flake statistics.
+ */
+public class RetryAnalyzer implements IRetryAnalyzer {
+
+    private static final int MAX = Integer.getInteger("retry.max", 2);
+    private static final long BACKOFF_MS = Long.getLong("retry.backoffMs", 500);
+    private static final long BACKOFF_MAX_MS = Long.getLong("retry.backoffMaxMs", 8000);
+    private static final AtomicInteger BUDGET = new AtomicInteger(Integer.getInteger("retry.budget", 20));
+
+    private int attempts;
+
+    @Override
+    public boolean retry(ITestResult result) {
+        if (attempts >= MAX) return false;
+        if (BUDGET.getAndDecrement() <= 0) {
+            SuiteLog.info("Retry budget used up, not retrying " + result.getMethod().getMethodName());
+            return false;
+        }
+        attempts++;
+
+        long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_MS << (attempts - 1));
+        Throwable cause = result.getThrowable();
+        SuiteLog.info(String.format("Retry %d/%d of %s in %d ms after: %s", attempts, MAX,
+                result.getMethod().getMethodName(), backoff, cause == null ? "failure" : cause.toString()));
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        Object instance = result.getInstance();
+        if (instance instanceof RestorableState) {
+            ReentrantLock session = StepScheduler.sessionLock(result.getTestClass().getRealClass());
+            if (session != null) session.lock();
+            try {
+                ((RestorableState) instance).restoreState();
+            } catch (RuntimeException e) {
+                // The session itself is broken; another attempt would fail the same way
+                SuiteLog.info("State restore failed, not retrying: " + e);
+                return false;
+            } finally {
+                if (session != null) session.unlock();
+            }
+        }
+        return true;
+    }
+
+    public int attempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,185 @@
+package insuredge_apurva;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Puts RetryAnalyzer on every @Test that has no analyzer of its own, and counts per test method
+ * how often it ran, failed at least once but passed on retry (flaky), and failed for good.
+ *
+ * The counts add up across runs in test-output/flake-stats.properties; after each run the methods
+ * that ever flaked are listed by flake rate in test-output/flake-report.txt, and those with at
+ * least -Dretry.chronicRuns=5 runs and a rate of -Dretry.chronicRate=0.1 or more are flagged.
+ */
+public class RetryListener implements IAnnotationTransformer, ITestListener, ISuiteListener {
+
+    private static final File STORE = new File("test-output", "flake-stats.properties");
+    private static final File REPORT = new File("test-output", "flake-report.txt");
+
+    private static final int RUNS = 0;
+    private static final int FLAKY = 1;
+    private static final int FAILED = 2;
+    private static final int RETRIES = 3;
+    private static final String[] KEYS = {"runs", "flaky", "failed", "retries"};
+
+    private final Map<String, AtomicIntegerArray> counts = new ConcurrentHashMap<>();
+    // Retried attempts of the invocation currently running per test (Class.method + parameters)
+    private final Map<String, Integer> retried = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        Class<?> analyzer = annotation.getRetryAnalyzerClass();
+        // TestNG reports "none" as one of its own internal classes
+        if (analyzer == null || analyzer.getName().startsWith("org.testng.internal")) {
+            annotation.setRetryAnalyzer(RetryAnalyzer.class);
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        Integer retries = retried.remove(invocation(result));
+        AtomicIntegerArray c = counts(result);
+        c.incrementAndGet(RUNS);
+        if (retries != null) {
+            c.incrementAndGet(FLAKY);
+            SuiteLog.info(name(result) + " passed after " + retries + " retr" + (retries == 1 ? "y" : "ies") + " (flaky)");
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        retried.remove(invocation(result));
+        AtomicIntegerArray c = counts(result);
+        c.incrementAndGet(RUNS);
+        c.incrementAndGet(FAILED);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // A failed attempt that the analyzer decided to retry is reported as skipped
+        if (!result.wasRetried()) return;
+        retried.merge(invocation(result), 1, Integer::sum);
+        counts(result).incrementAndGet(RETRIES);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (counts.isEmpty()) return;
+        Properties store = load();
+        for (Map.Entry<String, AtomicIntegerArray> e : counts.entrySet()) {
+            for (int i = 0; i < KEYS.length; i++) {
+                String key = e.getKey() + "." + KEYS[i];
+                long previous = Long.parseLong(store.getProperty(key, "0"));
+                store.setProperty(key, String.valueOf(previous + e.getValue().get(i)));
+            }
+        }
+        save(store);
+
+        String report = report(store);
+        SuiteLog.info(report);
+        try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+            out.print(report);
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + REPORT + ": " + e.getMessage());
+        }
+    }
+
+    private AtomicIntegerArray counts(ITestResult result) {
+        return counts.computeIfAbsent(name(result), k -> new AtomicIntegerArray(KEYS.length));
+    }
+
+    private static String name(ITestResult result) {
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+    }
+
+    private static String invocation(ITestResult result) {
+        return name(result) + Arrays.toString(result.getParameters());
+    }
+
+    // ---------- Report ----------
+
+    static String report(Properties store) {
+        TreeSet<String> tests = new TreeSet<>();
+        for (String key : store.stringPropertyNames()) {
+            if (key.endsWith(".runs")) tests.add(key.substring(0, key.length() - ".runs".length()));
+        }
+        int chronicRuns = Integer.getInteger("retry.chronicRuns", 5);
+        double chronicRate = Double.parseDouble(System.getProperty("retry.chronicRate", "0.1"));
+
+        List<String[]> rows = new ArrayList<>();
+        for (String t : tests) {
+            long runs = get(store, t, "runs");
+            long flaky = get(store, t, "flaky");
+            if (flaky == 0) continue;
+            double rate = runs == 0 ? 0 : (double) flaky / runs;
+            boolean chronic = runs >= chronicRuns && rate >= chronicRate;
+            rows.add(new String[]{t, String.valueOf(runs), String.valueOf(flaky), String.valueOf(get(store, t, "failed")),
+                    String.valueOf(get(store, t, "retries")), String.format("%.1f%%", rate * 100), chronic ? "CHRONIC" : ""});
+        }
+        rows.sort((a, b) -> Double.compare(rate(b), rate(a)));
+
+        StringBuilder sb = new StringBuilder("Flaky tests (all recorded runs)\n");
+        sb.append(String.format("%-46s %6s %6s %7s %8s %7s%n", "Test", "runs", "flaky", "failed", "retries", "rate"));
+        for (String[] r : rows) {
+            sb.append(String.format("%-46s %6s %6s %7s %8s %7s %s%n", (Object[]) r));
+        }
+        if (rows.isEmpty()) sb.append("none\n");
+        return sb.toString();
+    }
+
+    private static double rate(String[] row) {
+        long runs = Long.parseLong(row[1]);
+        return runs == 0 ? 0 : (double) Long.parseLong(row[2]) / runs;
+    }
+
+    private static long get(Properties p, String test, String key) {
+        return Long.parseLong(p.getProperty(test + "." + key, "0"));
+    }
+
+    // ---------- Persistence ----------
+
+    private static Properties load() {
+        Properties p = new Properties();
+        if (STORE.isFile()) {
+            try (InputStream in = new FileInputStream(STORE)) {
+                p.load(in);
+            } catch (IOException e) {
+                SuiteLog.info("Could not read " + STORE + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+
+    private static void save(Properties p) {
+        STORE.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(STORE)) {
+            p.store(out, "Per-test run, flake, failure and retry counts, summed over runs");
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + STORE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package insuredge_apurva;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import org.testng.annotations.Test;
+import org.testng.xml.SuiteXmlParser;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs a suite as N shards in separate JVMs, balanced on how long its classes took last time.
+ *
+ * Durations come from a previous testng-results.xml (duration-ms of every test and configuration
+ * method). The units are whole classes, or with -Dshard.split=methods the dependsOnMethods chains
+ * of a class (a chain never gets split; each unit of a class pays the class's configuration time
+ * again). Units go to shards by longest-processing-time first: biggest unit to the least loaded
+ * shard. Units without history are estimated at the average of the known ones.
+ *
+ * Every shard runs in its own JVM, working directory target/shards/shard-N and browser pool, with
+ * the suite's parameters and, per class, the parameters of its <test> and <class>. The shards'
+ * testng-results.xml are merged into target/shards/testng-results.xml, which is also copied to
+ * test-output/ so the next plan uses these timings. The shards also write their Extent parts as
+ * JSON archives, which are rebuilt into one report at target/shards/extent/index.html (this JVM
+ * holds every test of the run for that); index.html links it and every shard's own reports.
+ *
+ *   java insuredge_apurva.ShardPlanner [suite.xml]   (or: mvn -Pshards compile exec:exec)
+ *   -Dshard.count=N (default: half the cores, at most one per unit)  -Dshard.split=classes|methods
+ *   -Dshard.history=test-output/testng-results.xml  -Dshard.dryRun=true (print the plan only)
+ * Other -D and -X options of this JVM are passed on to the shards.
+ */
+public final class ShardPlanner {
+
+    private static final String DEFAULT_SUITE = "src/main/java/insuredge_apurva/testng.xml";
+    private static final File DIR = new File("target", "shards");
+    private static final long DEFAULT_UNIT_MS = 60_000;
+
+    private ShardPlanner() {
+    }
+
+    // ---------- Model ----------
+
+    static final class Unit {
+        final String className;
+        final List<String> methods;   // null: the whole class
+        long millis;
+        boolean estimated;
+
+        Unit(String className, List<String> methods) {
+            this.className = className;
+            this.methods = methods;
+        }
+
+        @Override
+        public String toString() {
+            String name = className.substring(className.lastIndexOf('.') + 1);
+            return (methods == null ? name : name + methods) + " " + millis + (estimated ? " ms (est.)" : " ms");
+        }
+    }
+
+    static final class Shard {
+        final int index;
+        final List<Unit> units = new ArrayList<>();
+        long plannedMillis;
+
+        Shard(int index) {
+            this.index = index;
+        }
+    }
+
+    // ---------- Entry point ----------
+
+    public static void main(String[] args) throws Exception {
+        File suiteFile = new File(args.length > 0 ? args[0] : DEFAULT_SUITE);
+        XmlSuite suite;
+        try (InputStream in = new FileInputStream(suiteFile)) {
+            suite = new SuiteXmlParser().parse(suiteFile.getPath(), in, false);
+        }
+
+        Map<String, Long> history = history(new File(System.getProperty("shard.history", "test-output/testng-results.xml")));
+        boolean byMethods = "methods".equals(System.getProperty("shard.split", "classes"));
+        List<Unit> units = units(classes(suite), history, byMethods);
+
+        int count = Integer.getInteger("shard.count", 0);
+        if (count <= 0) count = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        List<Shard> shards = plan(units, Math.min(count, units.size()));
+
+        System.out.println(describe(shards));
+        if (Boolean.getBoolean("shard.dryRun")) return;
+
+        DIR.mkdirs();
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        for (Shard shard : shards) processes.add(launch(suite, shard));
+
+        // Note when each shard ends, whatever the order
+        int failedShards = 0;
+        int running = processes.size();
+        long[] took = new long[shards.size()];
+        while (running > 0) {
+            for (int i = 0; i < processes.size(); i++) {
+                if (took[i] == 0 && !processes.get(i).isAlive()) {
+                    took[i] = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    // TestNG exits with 2 when tests were only skipped (retried attempts count as skips)
+                    int exit = processes.get(i).exitValue();
+                    if (exit != 0 && exit != 2) failedShards++;
+                    running--;
+                }
+            }
+            if (running > 0) Thread.sleep(200);
+        }
+        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        File merged = merge(shards);
+        File report = mergeReports(shards);
+        writeIndex(shards, took, wall, report != null);
+        System.out.printf("%d shards finished in %d ms (%d with failures). Merged results: %s, report: %s%n",
+                shards.size(), wall, failedShards, merged, report);
+        System.exit(failedShards == 0 ? 0 : 1);
+    }
+
+    // ---------- Planning ----------
+
+    static List<String> classes(XmlSuite suite) {
+        Set<String> names = new LinkedHashSet<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass c : test.getXmlClasses()) names.add(c.getName());
+        }
+        return new ArrayList<>(names);
+    }
+
+    // Class -> all its methods, Class#method -> one test method, Class#config -> its configuration methods (ms)
+    static Map<String, Long> history(File results) throws Exception {
+        Map<String, Long> millis = new HashMap<>();
+        if (!results.isFile()) return millis;
+
+        NodeList classes = parse(results).getElementsByTagName("class");
+        for (int i = 0; i < classes.getLength(); i++) {
+            Element c = (Element) classes.item(i);
+            String className = c.getAttribute("name");
+            NodeList methods = c.getElementsByTagName("test-method");
+            for (int m = 0; m < methods.getLength(); m++) {
+                Element method = (Element) methods.item(m);
+                long ms = Long.parseLong(method.getAttribute("duration-ms").isEmpty() ? "0" : method.getAttribute("duration-ms"));
+                millis.merge(className, ms, Long::sum);
+                String key = "true".equals(method.getAttribute("is-config"))
+                        ? className + "#config" : className + "#" + method.getAttribute("name");
+                millis.merge(key, ms, Long::sum);
+            }
+        }
+        return millis;
+    }
+
+    static List<Unit> units(List<String> classes, Map<String, Long> history, boolean byMethods) throws ClassNotFoundException {
+        List<Unit> units = new ArrayList<>();
+        for (String className : classes) {
+            if (!byMethods) {
+                Unit u = new Unit(className, null);
+                Long ms = history.get(className);
+                u.millis = ms == null ? -1 : ms;
+                units.add(u);
+                continue;
+            }
+            long config = history.getOrDefault(className + "#config", 0L);
+            for (List<String> chain : chains(Class.forName(className))) {
+                Unit u = new Unit(className, chain);
+                long sum = config;
+                boolean known = false;
+                for (String m : chain) {
+                    Long ms = history.get(className + "#" + m);
+                    if (ms != null) {
+                        sum += ms;
+                        known = true;
+                    }
+                }
+                u.millis = known ? sum : -1;
+                units.add(u);
+            }
+        }
+
+        // No history: the average of the known units, or a flat guess
+        long known = 0;
+        int n = 0;
+        for (Unit u : units) {
+            if (u.millis >= 0) {
+                known += u.millis;
+                n++;
+            }
+        }
+        long estimate = n == 0 ? DEFAULT_UNIT_MS : known / n;
+        for (Unit u : units) {
+            if (u.millis < 0) {
+                u.millis = estimate;
+                u.estimated = true;
+            }
+        }
+        return units;
+    }
+
+    // Test methods of a class grouped so that dependsOnMethods never crosses a group
+    static List<List<String>> chains(Class<?> testClass) {
+        Map<String, String> parent = new LinkedHashMap<>();
+        for (Method m : testClass.getMethods()) {
+            if (m.isAnnotationPresent(Test.class)) parent.put(m.getName(), m.getName());
+        }
+        for (Method m : testClass.getMethods()) {
+            Test test = m.getAnnotation(Test.class);
+            if (test == null) continue;
+            // Group dependencies cannot be followed here: keep the class in one piece
+            if (test.dependsOnGroups().length > 0) return Arrays.asList(new ArrayList<>(parent.keySet()));
+            for (String dependency : test.dependsOnMethods()) {
+                String name = dependency.substring(dependency.lastIndexOf('.') + 1);
+                if (parent.containsKey(name)) parent.put(root(parent, m.getName()), root(parent, name));
+            }
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String method : parent.keySet()) {
+            groups.computeIfAbsent(root(parent, method), k -> new ArrayList<>()).add(method);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static String root(Map<String, String> parent, String name) {
+        while (!parent.get(name).equals(name)) name = parent.get(name);
+        return name;
+    }
+
+    // Longest processing time first
+    static List<Shard> plan(List<Unit> units, int count) {
+        List<Unit> sorted = new ArrayList<>(units);
+        sorted.sort((a, b) -> Long.compare(b.millis, a.millis));
+
+        List<Shard> shards = new ArrayList<>();
+        PriorityQueue<Shard> lightest = new PriorityQueue<>((a, b) -> a.plannedMillis != b.plannedMillis
+                ? Long.compare(a.plannedMillis, b.plannedMillis) : Integer.compare(a.index, b.index));
+        for (int i = 0; i < Math.max(1, count); i++) {
+            Shard s = new Shard(i + 1);
+            shards.add(s);
+            lightest.add(s);
+        }
+        for (Unit u : sorted) {
+            Shard s = lightest.poll();
+            s.units.add(u);
+            s.plannedMillis += u.millis;
+            lightest.add(s);
+        }
+        return shards;
+    }
+
+    static String describe(List<Shard> shards) {
+        long max = 0;
+        long sum = 0;
+        StringBuilder sb = new StringBuilder("Shard plan\n");
+        for (Shard s : shards) {
+            max = Math.max(max, s.plannedMillis);
+            sum += s.plannedMillis;
+            sb.append(String.format("  shard-%d  %8d ms  %s%n", s.index, s.plannedMillis, s.units));
+        }
+        sb.append(String.format("Planned wall clock %d ms for %d ms of work (%.2fx)%n",
+                max, sum, max == 0 ? 0 : (double) sum / max));
+        return sb.toString();
+    }
+
+    // ---------- Forks ----------
+
+    static XmlSuite shardSuite(XmlSuite source, Shard shard) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(source.getName() + "-shard-" + shard.index);
+        for (String listener : source.getListeners()) suite.addListener(listener);
+        suite.setParameters(new LinkedHashMap<>(source.getParameters()));
+
+        // One <test> per <test> of the source the shard's classes come from, with its parameters
+        Map<XmlTest, XmlTest> tests = new LinkedHashMap<>();
+        Map<String, XmlClass> classes = new LinkedHashMap<>();
+        for (Unit u : shard.units) {
+            XmlClass c = classes.computeIfAbsent(u.className, name -> {
+                XmlTest in = sourceTest(source, name);
+                XmlClass from = in.getXmlClasses().stream().filter(x -> x.getName().equals(name)).findFirst().get();
+                XmlTest test = tests.computeIfAbsent(in, t -> {
+                    XmlTest copy = new XmlTest(suite);
+                    copy.setName(t.getName() + "-shard-" + shard.index);
+                    copy.setParameters(new LinkedHashMap<>(t.getLocalParameters()));
+                    return copy;
+                });
+                XmlClass added = new XmlClass(name, false);
+                added.setParameters(new LinkedHashMap<>(from.getLocalParameters()));
+                test.getXmlClasses().add(added);
+                return added;
+            });
+            if (u.methods != null) {
+                for (String m : u.methods) c.getIncludedMethods().add(new XmlInclude(m));
+            }
+        }
+        return suite;
+    }
+
+    // The first <test> listing the class (classes() runs a class listed twice once)
+    private static XmlTest sourceTest(XmlSuite source, String className) {
+        for (XmlTest test : source.getTests()) {
+            for (XmlClass c : test.getXmlClasses()) {
+                if (c.getName().equals(className)) return test;
+            }
+        }
+        throw new IllegalArgumentException(className + " is not in " + source.getName());
+    }
+
+    private static Process launch(XmlSuite source, Shard shard) throws Exception {
+        File dir = new File(DIR, "shard-" + shard.index);
+        dir.mkdirs();
+        File xml = new File(dir, "testng-shard.xml");
+        Files.write(xml.toPath(), shardSuite(source, shard).toXml().getBytes(StandardCharsets.UTF_8));
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if ((arg.startsWith("-D") && !arg.startsWith("-Dshard.")) || arg.startsWith("-X")) command.add(arg);
+        }
+        // Relative paths of the suite resolve against the project, not the shard's directory
+        command.add("-Ddata.file=" + PolicyNameSheet.file().getAbsolutePath());
+        command.add("-Dpool.size=1");
+        command.add("-Dreport.json=true");
+        command.add("-Dshard.index=" + shard.index);
+        command.add("-cp");
+        command.add(absoluteClassPath());
+        command.add("org.testng.TestNG");
+        command.add(xml.getName());
+
+        return new ProcessBuilder(command)
+                .directory(dir)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(dir, "console.log"))
+                .start();
+    }
+
+    // The shard runs in its own directory, so relative class path entries would point nowhere
+    private static String absoluteClassPath() {
+        StringBuilder sb = new StringBuilder();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(File.pathSeparator);
+            sb.append(new File(entry).getAbsolutePath());
+        }
+        return sb.toString();
+    }
+
+    // ---------- Results ----------
+
+    // One testng-results.xml with the suites of every shard and the summed counters
+    static File merge(List<Shard> shards) throws Exception {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document merged = builder.newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        String[] counters = {"ignored", "total", "passed", "failed", "skipped"};
+        long[] sums = new long[counters.length];
+
+        for (Shard shard : shards) {
+            File results = new File(DIR, "shard-" + shard.index + "/test-output/testng-results.xml");
+            if (!results.isFile()) {
+                System.out.println("shard-" + shard.index + " left no " + results + ", see its console.log");
+                continue;
+            }
+            Element shardRoot = parse(results).getDocumentElement();
+            for (int i = 0; i < counters.length; i++) {
+                String v = shardRoot.getAttribute(counters[i]);
+                if (!v.isEmpty()) sums[i] += Long.parseLong(v);
+            }
+            NodeList children = shardRoot.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child instanceof Element && "suite".equals(child.getNodeName())) {
+                    root.appendChild(merged.importNode(child, true));
+                }
+            }
+        }
+        for (int i = 0; i < counters.length; i++) root.setAttribute(counters[i], String.valueOf(sums[i]));
+
+        File out = new File(DIR, "testng-results.xml");
+        Transformer t = TransformerFactory.newInstance().newTransformer();
+        t.setOutputProperty(OutputKeys.INDENT, "yes");
+        t.transform(new DOMSource(merged), new StreamResult(out));
+
+        // Next plan balances on this run
+        File history = new File("test-output", "testng-results.xml");
+        history.getParentFile().mkdirs();
+        Files.copy(out.toPath(), history.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return out;
+    }
+
+    // One Extent report of every shard, rebuilt from the JSON archives of their parts; null when none wrote any
+    static File mergeReports(List<Shard> shards) throws Exception {
+        ExtentReports extent = new ExtentReports();
+        File out = new File(DIR, "extent/index.html");
+        ExtentSparkReporter spark = new ExtentSparkReporter(out);
+        spark.config().setReportName("Insuredge suite, " + shards.size() + " shards");
+        extent.attachReporter(spark);
+        int archives = 0;
+        for (Shard shard : shards) {
+            File[] parts = new File(DIR, "shard-" + shard.index + "/test-output/extent")
+                    .listFiles((dir, name) -> name.matches("part-\\d+\\.json"));
+            if (parts == null) continue;
+            Arrays.sort(parts);
+            for (File part : parts) {
+                extent.createDomainFromJsonArchive(part);
+                archives++;
+            }
+        }
+        if (archives == 0) return null;
+        extent.flush();
+        return out;
+    }
+
+    private static void writeIndex(List<Shard> shards, long[] took, long wall, boolean report) throws Exception {
+        StringBuilder sb = new StringBuilder("<!DOCTYPE html><html><head><meta charset='utf-8'><title>Shards</title></head><body>");
+        sb.append("<h1>Sharded run: ").append(shards.size()).append(" shards, ").append(wall).append(" ms</h1>");
+        sb.append("<p><a href='testng-results.xml'>Merged testng-results.xml</a>");
+        if (report) sb.append(" <a href='extent/index.html'>Merged Extent report</a>");
+        sb.append("</p><table border='1' cellpadding='4'>");
+        sb.append("<tr><th>Shard</th><th>Planned ms</th><th>Actual ms</th><th>Units</th><th>Reports</th></tr>");
+        for (int i = 0; i < shards.size(); i++) {
+            Shard s = shards.get(i);
+            String dir = "shard-" + s.index;
+            sb.append("<tr><td>").append(dir).append("</td><td>").append(s.plannedMillis).append("</td><td>").append(took[i])
+                    .append("</td><td>").append(s.units.toString().replace("<", "&lt;")).append("</td><td>")
+                    .append("<a href='").append(dir).append("/test-output/extent/index.html'>Extent</a> ")
+                    .append("<a href='").append(dir).append("/test-output/index.html'>TestNG</a> ")
+                    .append("<a href='").append(dir).append("/console.log'>console</a></td></tr>");
+        }
+        sb.append("</table></body></html>");
+        Files.write(new File(DIR, "index.html").toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Document parse(File file) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        // testng-results.xml has no DTD, but never go to the network for one
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        return factory.newDocumentBuilder().parse(file);
+    }
+}
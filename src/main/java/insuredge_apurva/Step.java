@@ -0,0 +1,30 @@
+package insuredge_apurva;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * What a test step reads from and leaves behind in its class's browser session.
+ *
+ * StepScheduler derives the order between a class's steps from these instead of the hand-written
+ * dependsOnMethods chain: a step waits only for earlier steps that mutate what it reads or touches
+ * (or that read what it mutates). A step without @Step is assumed to read and mutate everything.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Step {
+
+    State[] reads() default {};
+
+    State[] mutates() default {};
+
+    enum State {
+        PAGE,       // URL / which portal page is loaded
+        VIEWPORT,   // window size
+        GRID_PAGE,  // which page of a paged grid is shown
+        SCROLL,     // scroll position
+        FOCUS       // focused element, pointer position, pending keyboard input
+    }
+}
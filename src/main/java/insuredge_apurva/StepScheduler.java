@@ -0,0 +1,406 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.IAnnotationTransformer;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Runs a class's steps as a dependency DAG instead of the hand-written dependsOnMethods chain.
+ *
+ * For every class with @Step methods the steps are taken in their declared chain order
+ * (dependsOnMethods, then priority, then name) and step j gets an edge from an earlier step i when
+ * i mutates what j reads or mutates, or i reads what j mutates. The transformer replaces each
+ * step's dependsOnMethods with its direct DAG predecessors, the interceptor hands TestNG the roots
+ * first, and with parallel="methods" (testng-dag.xml) steps without a path between them may be
+ * started at the same time. A WebDriver session only takes one thread at a time, though, so every
+ * step holds its class's session lock while it runs: steps on the class's own session still run
+ * one after another, in whatever order the DAG allows. Only a step that only reads, does not read
+ * FOCUS and belongs to a class whose steps never change PAGE or GRID_PAGE runs alongside the others,
+ * on a cloned session (StepScheduler.session(driver), -Dsteps.clone=true): a second pooled session
+ * synced to the primary's URL, window size and scroll position (under the lock), released after the
+ * step. Such a step must reach the browser through session(); if the clone cannot be synced it
+ * takes the lock and falls back to the primary.
+ *
+ * At suite end test-output/step-dag.txt lists per class the serial sum of the step times, the
+ * critical path through the DAG and the actual wall time from first step start to last step end.
+ */
+public class StepScheduler implements IAnnotationTransformer, IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private static final File REPORT = new File("test-output", "step-dag.txt");
+    private static final boolean CLONE = Boolean.getBoolean("steps.clone");
+
+    // Returns [scrollX, scrollY]
+    static final String SCROLL_JS = "return [window.pageXOffset, window.pageYOffset];";
+
+    private static final Map<Class<?>, Dag> DAGS = new ConcurrentHashMap<>();
+    private static final Dag NONE = new Dag(Object.class, Collections.<Method>emptyList());
+
+    private static final ThreadLocal<Node> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<WebDriver> CLONED = new ThreadLocal<>();
+    private static final ThreadLocal<ReentrantLock> HELD = new ThreadLocal<>();
+
+    // ---------- DAG ----------
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) return;
+        Node node = dag(testMethod.getDeclaringClass()).node(testMethod.getName());
+        if (node != null) annotation.setDependsOnMethods(node.predecessorNames());
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        // Keep classes in suite order; within a class, shallower steps first
+        Map<Class<?>, Integer> classOrder = new HashMap<>();
+        for (IMethodInstance m : methods) {
+            Class<?> c = m.getMethod().getRealClass();
+            if (!classOrder.containsKey(c)) classOrder.put(c, classOrder.size());
+        }
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.<IMethodInstance>comparingInt(m -> classOrder.get(m.getMethod().getRealClass()))
+                .thenComparingInt(m -> {
+                    Node n = dag(m.getMethod().getRealClass()).node(m.getMethod().getMethodName());
+                    return n == null ? 0 : n.depth;
+                }));
+        return ordered;
+    }
+
+    // The lock on the class's session, for listeners that drive it around a step; null without steps
+    static ReentrantLock sessionLock(Class<?> testClass) {
+        Dag dag = DAGS.get(testClass);
+        return dag == null || dag == NONE ? null : dag.session;
+    }
+
+    static Dag dag(Class<?> testClass) {
+        return DAGS.computeIfAbsent(testClass, c -> {
+            List<Method> tests = new ArrayList<>();
+            boolean steps = false;
+            for (Method m : c.getDeclaredMethods()) {
+                if (m.isAnnotationPresent(Test.class)) {
+                    tests.add(m);
+                    steps |= m.isAnnotationPresent(Step.class);
+                }
+            }
+            return steps ? new Dag(c, tests) : NONE;
+        });
+    }
+
+    static final class Dag {
+        final Class<?> testClass;
+        final List<Node> nodes = new ArrayList<>();
+        final Map<String, Node> byName = new HashMap<>();
+        // The page a step sees can be rebuilt from its URL: no step clicks to another page or grid page
+        final boolean urlReproducible;
+        // Held by whichever step is driving the class's primary session
+        final ReentrantLock session = new ReentrantLock(true);
+
+        Dag(Class<?> testClass, List<Method> tests) {
+            this.testClass = testClass;
+            boolean reproducible = true;
+            for (Method m : chainOrder(tests)) {
+                Node n = new Node(this, m, nodes.size());
+                nodes.add(n);
+                byName.put(n.name, n);
+                reproducible &= !n.mutates.contains(Step.State.PAGE) && !n.mutates.contains(Step.State.GRID_PAGE);
+            }
+            urlReproducible = reproducible;
+            link();
+        }
+
+        Node node(String method) {
+            return byName.get(method);
+        }
+
+        // Hazard edges, reduced to the direct predecessors
+        private void link() {
+            List<BitSet> ancestors = new ArrayList<>();
+            for (Node j : nodes) {
+                List<Node> hazards = new ArrayList<>();
+                for (int i = 0; i < j.index; i++) {
+                    if (nodes.get(i).conflictsWith(j)) hazards.add(nodes.get(i));
+                }
+                BitSet reach = new BitSet();
+                for (Node p : hazards) {
+                    reach.set(p.index);
+                    reach.or(ancestors.get(p.index));
+                }
+                for (Node p : hazards) {
+                    boolean implied = false;
+                    for (Node q : hazards) {
+                        if (q != p && ancestors.get(q.index).get(p.index)) {
+                            implied = true;
+                            break;
+                        }
+                    }
+                    if (!implied) j.predecessors.add(p);
+                }
+                for (Node p : j.predecessors) j.depth = Math.max(j.depth, p.depth + 1);
+                ancestors.add(reach);
+            }
+        }
+
+        // Kahn's order over the original dependsOnMethods, ties by priority then name
+        private static List<Method> chainOrder(List<Method> tests) {
+            Map<String, Method> byName = new LinkedHashMap<>();
+            for (Method m : tests) byName.put(m.getName(), m);
+            Comparator<Method> tie = Comparator.<Method>comparingInt(m -> m.getAnnotation(Test.class).priority())
+                    .thenComparing(Method::getName);
+
+            List<Method> pending = new ArrayList<>(tests);
+            pending.sort(tie);
+            List<Method> order = new ArrayList<>();
+            Set<String> done = new HashSet<>();
+            while (!pending.isEmpty()) {
+                Method next = null;
+                for (Method m : pending) {
+                    boolean ready = true;
+                    for (String dep : m.getAnnotation(Test.class).dependsOnMethods()) {
+                        if (byName.containsKey(dep) && !done.contains(dep)) {
+                            ready = false;
+                            break;
+                        }
+                    }
+                    if (ready) {
+                        next = m;
+                        break;
+                    }
+                }
+                // A cycle is TestNG's to report; keep the remaining ones in tie order
+                if (next == null) next = pending.get(0);
+                pending.remove(next);
+                done.add(next.getName());
+                order.add(next);
+            }
+            return order;
+        }
+    }
+
+    static final class Node {
+        final Dag dag;
+        final String name;
+        final int index;
+        final Set<Step.State> reads;
+        final Set<Step.State> mutates;
+        final List<Node> predecessors = new ArrayList<>();
+        int depth;
+
+        // Measured, last attempt wins for start and end, attempts add up
+        volatile long startNanos;
+        volatile long endNanos;
+        volatile long busyNanos;
+
+        Node(Dag dag, Method m, int index) {
+            this.dag = dag;
+            this.name = m.getName();
+            this.index = index;
+            Step step = m.getAnnotation(Step.class);
+            if (step == null) {
+                reads = EnumSet.allOf(Step.State.class);
+                mutates = EnumSet.allOf(Step.State.class);
+            } else {
+                reads = states(step.reads());
+                mutates = states(step.mutates());
+            }
+        }
+
+        private static Set<Step.State> states(Step.State[] states) {
+            Set<Step.State> set = EnumSet.noneOf(Step.State.class);
+            set.addAll(Arrays.asList(states));
+            return set;
+        }
+
+        // Read-after-write, write-after-write, write-after-read (this one runs first)
+        boolean conflictsWith(Node later) {
+            return !Collections.disjoint(mutates, later.reads)
+                    || !Collections.disjoint(mutates, later.mutates)
+                    || !Collections.disjoint(reads, later.mutates);
+        }
+
+        boolean readOnly() {
+            return mutates.isEmpty();
+        }
+
+        // Runs on a synced clone rather than on the class's session
+        boolean cloneable() {
+            return CLONE && readOnly() && !reads.contains(Step.State.FOCUS) && dag.urlReproducible;
+        }
+
+        String[] predecessorNames() {
+            String[] names = new String[predecessors.size()];
+            for (int i = 0; i < names.length; i++) names[i] = predecessors.get(i).name;
+            return names;
+        }
+
+        long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(busyNanos);
+        }
+    }
+
+    // ---------- Cloned sessions ----------
+
+    // The session a step should read from: a synced clone for cloneable read-only steps, else primary
+    public static WebDriver session(WebDriver primary) {
+        Node node = CURRENT.get();
+        if (node == null || !node.cloneable() || HELD.get() != null) return primary;
+
+        WebDriver clone = CLONED.get();
+        if (clone != null) return clone;
+        DriverPool pool = DriverPool.get();
+        clone = pool.borrow(pool.profileOf(primary));
+        CLONED.set(clone);
+        node.dag.session.lock();
+        try {
+            sync(primary, clone);
+        } catch (WebDriverException e) {
+            SuiteLog.info("Clone for " + node.name + " could not be synced, reading from the primary session: " + e);
+            CLONED.remove();
+            pool.release(clone);
+            // Keeps the lock: from here on the step drives the primary session
+            HELD.set(node.dag.session);
+            return primary;
+        } finally {
+            if (HELD.get() == null) node.dag.session.unlock();
+        }
+        return clone;
+    }
+
+    private static void sync(WebDriver primary, WebDriver clone) {
+        clone.get(primary.getCurrentUrl());
+        Dimension size = primary.manage().window().getSize();
+        clone.manage().window().setSize(size);
+        List<?> scroll = (List<?>) ((JavascriptExecutor) primary).executeScript(SCROLL_JS);
+        ((JavascriptExecutor) clone).executeScript("window.scrollTo(arguments[0], arguments[1]);",
+                scroll.get(0), scroll.get(1));
+    }
+
+    // ---------- Timing ----------
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod()) return;
+        Node node = dag(result.getTestClass().getRealClass()).node(result.getMethod().getMethodName());
+        if (node == null) return;
+        CURRENT.set(node);
+        if (!node.cloneable()) {
+            node.dag.session.lock();
+            HELD.set(node.dag.session);
+        }
+        node.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        Node node = CURRENT.get();
+        if (!method.isTestMethod() || node == null) return;
+        long end = System.nanoTime();
+        node.endNanos = end;
+        node.busyNanos += end - node.startNanos;
+        CURRENT.remove();
+        ReentrantLock held = HELD.get();
+        if (held != null) {
+            HELD.remove();
+            held.unlock();
+        }
+        WebDriver clone = CLONED.get();
+        if (clone != null) {
+            CLONED.remove();
+            DriverPool.get().release(clone);
+        }
+    }
+
+    // ---------- Report ----------
+
+    @Override
+    public void onFinish(ISuite suite) {
+        StringBuilder sb = new StringBuilder();
+        for (Dag dag : DAGS.values()) {
+            if (dag != NONE) sb.append(report(dag));
+        }
+        if (sb.length() == 0) return;
+        SuiteLog.info("Step DAG:\n" + sb);
+        REPORT.getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+            out.print(sb);
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + REPORT + ": " + e.getMessage());
+        }
+    }
+
+    static String report(Dag dag) {
+        long serial = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        long[] path = new long[dag.nodes.size()];
+        Node[] via = new Node[dag.nodes.size()];
+        Node tail = null;
+        for (Node n : dag.nodes) {
+            serial += n.busyNanos;
+            if (n.endNanos != 0) {
+                first = Math.min(first, n.startNanos);
+                last = Math.max(last, n.endNanos);
+            }
+            // Longest path ending in n, weighted by step time
+            for (Node p : n.predecessors) {
+                if (path[p.index] > path[n.index]) {
+                    path[n.index] = path[p.index];
+                    via[n.index] = p;
+                }
+            }
+            path[n.index] += n.busyNanos;
+            if (tail == null || path[n.index] > path[tail.index]) tail = n;
+        }
+        if (tail == null || last == Long.MIN_VALUE) return "";
+
+        List<String> critical = new ArrayList<>();
+        for (Node n = tail; n != null; n = via[n.index]) critical.add(0, n.name);
+        long wall = last - first;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s: %d steps | serial %d ms | critical path %d ms | wall %d ms (%.2fx of critical path)%n",
+                dag.testClass.getSimpleName(), dag.nodes.size(), TimeUnit.NANOSECONDS.toMillis(serial),
+                TimeUnit.NANOSECONDS.toMillis(path[tail.index]), TimeUnit.NANOSECONDS.toMillis(wall),
+                path[tail.index] == 0 ? 0 : (double) wall / path[tail.index]));
+        sb.append("  critical path: ").append(String.join(" -> ", critical)).append('\n');
+        for (Node n : dag.nodes) {
+            sb.append(String.format("  %-36s %7d ms  after %s%s%n", n.name, n.millis(),
+                    n.predecessors.isEmpty() ? "-" : String.join(", ", n.predecessorNames()),
+                    n.cloneable() ? "  [clone]" : n.readOnly() ? "  [read-only]" : ""));
+        }
+        return sb.toString();
+    }
+}
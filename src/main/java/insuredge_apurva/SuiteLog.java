@@ -0,0 +1,64 @@
+package insuredge_apurva;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.Unbox;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Logging for the suite on Log4j2 async loggers (see log4j2.xml / log4j2.component.properties).
+ *
+ * Callers hand the line to a ring buffer and return; one background thread formats and writes it,
+ * so concurrent classes neither wait on the console lock nor interleave. Every line carries time,
+ * level, worker thread, the test (Class.method, bound per thread by SuiteTimingListener) and the
+ * milliseconds since that test started. test-output/suite.log holds them tab-separated:
+ *   epoch_ms  level  thread  test  elapsed_ms  message   (CR/LF in the message escaped)
+ *
+ * Lines logged during a test also go to that test's entry in the Extent report, so info() keeps a
+ * reference to each line for the rest of the test; it is cheap, not garbage-free. debug() formats
+ * nothing when DEBUG is off (-Dlog.level), but primitive arguments are boxed by the caller before
+ * the level check: guard hot loops with isDebugEnabled().
+ */
+public final class SuiteLog {
+
+    private static final Logger LOG = LogManager.getLogger("insuredge");
+    private static final String LINE = "{}\t{}";
+    private static final ThreadLocal<long[]> TEST_START = ThreadLocal.withInitial(() -> new long[]{System.nanoTime()});
+
+    private SuiteLog() {
+    }
+
+    public static void bind(String testClass, String method) {
+        ThreadContext.put("test", testClass + "." + method);
+        TEST_START.get()[0] = System.nanoTime();
+    }
+
+    public static void info(String message) {
+        ExtentReportListener.log(message);
+        LOG.info(LINE, Unbox.box(elapsedMillis()), message);
+    }
+
+    public static boolean isDebugEnabled() {
+        return LOG.isDebugEnabled();
+    }
+
+    public static void debug(String message) {
+        if (LOG.isDebugEnabled()) LOG.debug(LINE, Unbox.box(elapsedMillis()), message);
+    }
+
+    // Formats with {} placeholders only when DEBUG is on
+    public static void debug(String format, Object arg) {
+        if (LOG.isDebugEnabled()) debug(ParameterizedMessage.format(format, new Object[]{arg}));
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        if (LOG.isDebugEnabled()) debug(ParameterizedMessage.format(format, new Object[]{arg1, arg2}));
+    }
+
+    private static long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - TEST_START.get()[0]);
+    }
+}
@@ -0,0 +1,174 @@
+package insuredge_apurva;
+
+import org.testng.IClassListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestClass;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Records per-class and wall-clock durations of a suite run and keeps the latest serial and the
+ * latest parallel run side by side in test-output/suite-timings.properties. Once both exist, the
+ * comparison is printed and written to test-output/suite-timings.txt.
+ *
+ * Run testng.xml (serial) and testng-parallel.xml (parallel="classes") once each to fill it in.
+ */
+public class SuiteTimingListener implements ISuiteListener, IClassListener, IInvokedMethodListener {
+
+    private static final File STORE = new File("test-output", "suite-timings.properties");
+    private static final File REPORT = new File("test-output", "suite-timings.txt");
+
+    private final Map<String, Long> classStart = new ConcurrentHashMap<>();
+    private final Map<String, Long> classMillis = new ConcurrentHashMap<>();
+    private volatile long suiteStart;
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.nanoTime();
+    }
+
+    @Override
+    public void onBeforeClass(ITestClass testClass) {
+        classStart.put(testClass.getRealClass().getSimpleName(), System.nanoTime());
+    }
+
+    @Override
+    public void onAfterClass(ITestClass testClass) {
+        String name = testClass.getRealClass().getSimpleName();
+        Long start = classStart.get(name);
+        if (start != null) {
+            classMillis.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        String testClass = method.getTestMethod().getRealClass().getSimpleName();
+        String name = method.getTestMethod().getMethodName();
+        SuiteLog.bind(testClass, name);
+        CommandMetrics.bindTest(testClass + "." + name);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - suiteStart);
+        String mode = isParallel(suite) ? "parallel" : "serial";
+
+        Properties store = load();
+        // Replace whatever the previous run of the same mode recorded
+        for (String key : store.stringPropertyNames()) {
+            if (key.startsWith(mode + ".")) store.remove(key);
+        }
+        store.setProperty(mode + ".wall", String.valueOf(wall));
+        store.setProperty(mode + ".threads", String.valueOf(suite.getXmlSuite().getThreadCount()));
+        for (Map.Entry<String, Long> e : classMillis.entrySet()) {
+            store.setProperty(mode + ".class." + e.getKey(), String.valueOf(e.getValue()));
+        }
+        save(store);
+
+        SuiteLog.info(String.format("Suite '%s' (%s) wall clock: %d ms", suite.getName(), mode, wall));
+        DomWait.Stats waits = DomWait.stats();
+        if (waits.waits > 0) SuiteLog.info(waits.toString());
+        if (store.containsKey("serial.wall") && store.containsKey("parallel.wall")) {
+            String report = compare(store);
+            SuiteLog.info("Serial vs parallel\n" + report);
+            write(report);
+        }
+    }
+
+    private static boolean isParallel(ISuite suite) {
+        XmlSuite xml = suite.getXmlSuite();
+        if (xml.getParallel() != null && xml.getParallel() != XmlSuite.ParallelMode.NONE) return true;
+        return !xml.getTests().isEmpty()
+                && xml.getTests().get(0).getParallel() != null
+                && xml.getTests().get(0).getParallel() != XmlSuite.ParallelMode.NONE;
+    }
+
+    // ---------- Report ----------
+
+    static String compare(Properties store) {
+        TreeSet<String> classes = new TreeSet<>();
+        for (String key : store.stringPropertyNames()) {
+            if (key.contains(".class.")) classes.add(key.substring(key.indexOf(".class.") + 7));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-14s %12s %12s%n", "Class", "serial ms", "parallel ms"));
+        long slowestParallel = 0;
+        long serialSum = 0;
+        for (String c : classes) {
+            long s = millis(store, "serial.class." + c);
+            long p = millis(store, "parallel.class." + c);
+            serialSum += Math.max(s, 0);
+            slowestParallel = Math.max(slowestParallel, p);
+            sb.append(String.format("%-14s %12s %12s%n", c, cell(s), cell(p)));
+        }
+
+        long serialWall = millis(store, "serial.wall");
+        long parallelWall = millis(store, "parallel.wall");
+        sb.append(String.format("%-14s %12d %12d%n", "Wall clock", serialWall, parallelWall));
+        sb.append(String.format("Sum of classes (serial): %d ms | slowest class (parallel): %d ms | threads: %s%n",
+                serialSum, slowestParallel, store.getProperty("parallel.threads", "?")));
+        sb.append(String.format("Speed-up: %.2fx | parallel wall vs. slowest class: %.2fx%n",
+                parallelWall == 0 ? 0 : (double) serialWall / parallelWall,
+                slowestParallel == 0 ? 0 : (double) parallelWall / slowestParallel));
+        return sb.toString();
+    }
+
+    private static long millis(Properties p, String key) {
+        String v = p.getProperty(key);
+        return v == null ? -1 : Long.parseLong(v);
+    }
+
+    private static String cell(long v) {
+        return v < 0 ? "-" : String.valueOf(v);
+    }
+
+    // ---------- Persistence ----------
+
+    private static Properties load() {
+        Properties p = new Properties();
+        if (STORE.isFile()) {
+            try (InputStream in = new FileInputStream(STORE)) {
+                p.load(in);
+            } catch (IOException e) {
+                SuiteLog.info("Could not read " + STORE + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+
+    private static void save(Properties p) {
+        STORE.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(STORE)) {
+            p.store(out, "Latest serial and parallel suite timings (ms)");
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + STORE + ": " + e.getMessage());
+        }
+    }
+
+    private static void write(String report) {
+        try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+            out.print(report);
+        } catch (IOException e) {
+            SuiteLog.info("Could not write " + REPORT + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Immutable snapshot of a table's header row, captured with a single executeScript call.
+ *
+ * For every th/td of the first row it records the normalized text (same as XPath normalize-space),
+ * whether the cell is displayed, a fixed set of computed styles and the bounding box. Header
+ * assertions then run locally against this model instead of one locate + wait + getCssValue
+ * round-trip per header.
+ */
+public final class TableHeaders {
+
+    private static final String CAPTURE_JS =
+            "var table = document.getElementById(arguments[0]);"
+                    + "if (!table || !table.rows.length) return null;"
+                    + "var props = arguments[1], out = [];"
+                    + "var cells = table.rows[0].cells;"
+                    + "for (var i = 0; i < cells.length; i++) {"
+                    + "  var c = cells[i], cs = window.getComputedStyle(c), r = c.getBoundingClientRect();"
+                    + "  var styles = {};"
+                    + "  for (var j = 0; j < props.length; j++) styles[props[j]] = cs.getPropertyValue(props[j]);"
+                    + "  var shown = r.width > 0 && r.height > 0 && cs.visibility !== 'hidden' && cs.display !== 'none'"
+                    + "      && parseFloat(cs.opacity) > 0;"
+                    + "  out.push({text: (c.textContent || '').replace(/\\s+/g, ' ').trim(), tag: c.tagName.toLowerCase(),"
+                    + "    displayed: shown, styles: styles, x: r.left, y: r.top, width: r.width, height: r.height});"
+                    + "}"
+                    + "return out;";
+
+    static final List<String> STYLE_PROPERTIES = Collections.unmodifiableList(Arrays.asList(
+            "font-weight", "font-style", "font-size", "color", "background-color", "text-align", "white-space"));
+
+    private final String tableId;
+    private final List<Cell> cells;
+    private final Map<String, Cell> byText;
+
+    private TableHeaders(String tableId, List<Cell> cells) {
+        this.tableId = tableId;
+        this.cells = Collections.unmodifiableList(cells);
+        Map<String, Cell> index = new LinkedHashMap<>();
+        for (Cell c : cells) {
+            if (!index.containsKey(c.text)) index.put(c.text, c);
+        }
+        this.byText = Collections.unmodifiableMap(index);
+    }
+
+    // Returns null while the table is not in the DOM yet, so it can be used inside wait.until(...)
+    @SuppressWarnings("unchecked")
+    public static TableHeaders capture(WebDriver driver, String tableId) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(CAPTURE_JS, tableId, STYLE_PROPERTIES);
+        if (raw == null) return null;
+
+        List<Cell> cells = new ArrayList<>();
+        int index = 0;
+        for (Object o : (List<Object>) raw) {
+            Map<String, Object> m = (Map<String, Object>) o;
+            Map<String, String> styles = new HashMap<>();
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) m.get("styles")).entrySet()) {
+                styles.put(e.getKey(), String.valueOf(e.getValue()));
+            }
+            cells.add(new Cell(index++, (String) m.get("text"), (String) m.get("tag"),
+                    Boolean.TRUE.equals(m.get("displayed")), styles,
+                    number(m.get("x")), number(m.get("y")), number(m.get("width")), number(m.get("height"))));
+        }
+        return new TableHeaders(tableId, cells);
+    }
+
+    public String tableId() {
+        return tableId;
+    }
+
+    public List<Cell> cells() {
+        return cells;
+    }
+
+    // Header cell whose normalized text matches exactly, or null
+    public Cell cell(String text) {
+        return byText.get(text);
+    }
+
+    public boolean containsAll(Collection<String> texts) {
+        return byText.keySet().containsAll(texts);
+    }
+
+    public List<String> missing(Collection<String> texts) {
+        List<String> out = new ArrayList<>();
+        for (String t : texts) {
+            if (!byText.containsKey(t)) out.add(t);
+        }
+        return out;
+    }
+
+    private static double number(Object o) {
+        return o instanceof Number ? ((Number) o).doubleValue() : 0;
+    }
+
+    // ---------- Header cell ----------
+
+    public static final class Cell {
+        public final int index;
+        public final String text;
+        public final String tag;
+        public final boolean displayed;
+        public final double x;
+        public final double y;
+        public final double width;
+        public final double height;
+        private final Map<String, String> styles;
+
+        Cell(int index, String text, String tag, boolean displayed, Map<String, String> styles,
+             double x, double y, double width, double height) {
+            this.index = index;
+            this.text = text;
+            this.tag = tag;
+            this.displayed = displayed;
+            this.styles = Collections.unmodifiableMap(styles);
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        // Computed style value, e.g. style("font-weight") -> "700"
+        public String style(String property) {
+            return styles.get(property);
+        }
+
+        public String fontWeight() {
+            return style("font-weight");
+        }
+
+        // font-weight >= 700 or the 'bold' keyword
+        public boolean isBold() {
+            String fw = fontWeight() == null ? "" : fontWeight();
+            String digits = fw.replaceAll("\\D", "");
+            if (!digits.isEmpty()) return Integer.parseInt(digits) >= 700;
+            return "bold".equalsIgnoreCase(fw);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[%d] '%s' displayed=%s font-weight=%s box=(%.0f,%.0f %.0fx%.0f)",
+                    tag, index, text, displayed, fontWeight(), x, y, width, height);
+        }
+    }
+}
@@ -1,51 +1,61 @@
 package insuredge_apurva;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 import org.testng.annotations.*;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class US17P4_09 {
 
+    private static final By POLICY_NAME = By.xpath("//input[contains(@placeholder,'Policy Name')]");
+
     private WebDriver driver;
     private WebDriverWait wait;
     private WebElement policyNameInput;
+    private ExcelResultWriter results;
+    private PolicyNameSheet.Rows sheetRows;
+    // Sessions TC-04's rows take turns on, one row per session at a time: the class's own plus
+    // data.sessions - 1 borrowed for TC-04 alone
+    private final BlockingQueue<WebDriver> lanes = new LinkedBlockingQueue<>();
+    private final List<WebDriver> extraLanes = new ArrayList<>();
 
     @BeforeClass
     public void setUpAndLogin() {
-        driver = new ChromeDriver();
-        driver.manage().window().maximize();
+        // ===== LOGGED-IN SESSION FROM THE POOL =====
+        driver = DriverFactory.start(getClass());
         wait = new WebDriverWait(driver, Duration.ofSeconds(10));
 
-        // ===== LOGIN =====
-        driver.get("https://qeaskillhub.cognizant.com/LoginPage");
-
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("txtUsername")))
-                .sendKeys("admin_user");
-        driver.findElement(By.name("txtPassword")).sendKeys("testadmin", Keys.ENTER);
-
-        // Wait until sidebar is visible after login
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("sidebar-nav")));
+        // Outcome of every spreadsheet row (TC-04)
+        results = PolicyNameSheet.resultWriter();
     }
 
     @BeforeMethod
-    public void navigateToPendingPolicyHoldersAndFocusInput() {
+    public void navigateToPendingPolicyHoldersAndFocusInput(Method method) {
+        // TC-04 rows run on data-provider threads and focus the field of their own session
+        if (method.getName().equals("testTC04_PolicyNameFromSheet")) return;
+        policyNameInput = focusPolicyName(driver, wait);
+    }
+
+    private static WebElement focusPolicyName(WebDriver session, WebDriverWait wait) {
         // ===== NAVIGATE TO Pending Policy Holders =====
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='sidebar-nav']/li[5]/a/i[2]"))).click();
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='policyHolder-nav']/li[3]/a/span"))).click();
+        // Skipped when already there: every case only types into the field, no need to reload
+        Navigator.to(session, Navigator.Page.PENDING_POLICY_HOLDERS);
 
         // ===== POLICY NAME TEXTBOX =====
-        policyNameInput = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath("//input[contains(@placeholder,'Policy Name')]")
-        ));
-        policyNameInput.click();
+        WebElement input = wait.until(ExpectedConditions.visibilityOfElementLocated(POLICY_NAME));
+        input.click();
+        return input;
     }
 
     @Test(description = "TC-01: Alphanumeric values should be accepted")
@@ -55,7 +65,7 @@ public class US17P4_09 {
         String actual = policyNameInput.getAttribute("value");
 
         Assert.assertEquals(actual, "Policy123", "Alphanumeric value should be accepted.");
-        System.out.println("TC01: Alphanumeric value accepted → " + actual);
+        SuiteLog.info("TC01: Alphanumeric value accepted → " + actual);
     }
 
     @Test(description = "TC-02: Special characters behavior (blocked/sanitized OR accepted)")
@@ -78,11 +88,11 @@ public class US17P4_09 {
                 "TC-02 failed. Expected blocked/sanitized/accepted-as-is. Actual: '" + actual + "'");
 
         if (blocked) {
-            System.out.println("TC02: Special characters blocked (empty value).");
+            SuiteLog.info("TC02: Special characters blocked (empty value).");
         } else if (sanitized) {
-            System.out.println("TC02: Special characters sanitized → '" + actual + "'");
+            SuiteLog.info("TC02: Special characters sanitized → '" + actual + "'");
         } else {
-            System.out.println("TC02: Special characters accepted-as-is → '" + actual + "'");
+            SuiteLog.info("TC02: Special characters accepted-as-is → '" + actual + "'");
         }
     }
 
@@ -104,17 +114,99 @@ public class US17P4_09 {
                 "TC-03 failed. Expected sanitized or accepted-as-is. Actual: '" + actual + "'");
 
         if (sanitized) {
-            System.out.println("TC03: Mixed input sanitized → '" + actual + "'");
+            SuiteLog.info("TC03: Mixed input sanitized → '" + actual + "'");
         } else {
-            System.out.println("TC03: Mixed input accepted-as-is → '" + actual + "'");
+            SuiteLog.info("TC03: Mixed input accepted-as-is → '" + actual + "'");
         }
-        System.out.println();
-        System.out.println("US17P4_09: PASSED");
-        System.out.println();
+        SuiteLog.info("US17P4_09: PASSED");
+    }
+
+    // Rows of the Policy Name sheet, streamed and typed into data.sessions sessions at once
+    // (see PolicyNameSheet for file, session and sharding options)
+    @DataProvider(name = "policyNameSheet", parallel = true)
+    public Iterator<Object[]> policyNameSheet() {
+        int sessions = PolicyNameSheet.sessions();
+        // Two rows per session out at a time, so no session waits for the sheet
+        sheetRows = PolicyNameSheet.rows(sessions * 2);
+        lanes.clear();
+        lanes.add(driver);
+        for (int i = 1; i < sessions; i++) {
+            try {
+                WebDriver extra = DriverPool.get().borrow(BrowserProfile.forClass(getClass()));
+                extraLanes.add(extra);
+                lanes.add(extra);
+            } catch (IllegalStateException e) {
+                // A full pool: the rows go through the sessions there are
+                SuiteLog.info("TC04: only " + lanes.size() + " of " + sessions + " sessions: " + e.getMessage());
+                break;
+            }
+        }
+        return sheetRows;
+    }
+
+    @Test(dataProvider = "policyNameSheet", description = "TC-04: Policy Name inputs from the spreadsheet")
+    public void testTC04_PolicyNameFromSheet(int row, String input, String expected) {
+        WebDriver session = takeLane();
+        try {
+            WebElement field = focusPolicyName(session, new WebDriverWait(session, Duration.ofSeconds(10)));
+            field.clear();
+            field.sendKeys(input);
+            String actual = field.getAttribute("value");
+
+            InputOutcome outcome = InputOutcome.classify(input, actual);
+            boolean pass = InputOutcome.parse(expected).contains(outcome);
+            results.append(row, input, expected, actual, outcome.name(), pass);
+
+            Assert.assertTrue(pass, "TC-04 row " + row + ": '" + input + "' was " + outcome
+                    + " ('" + actual + "'), expected " + expected);
+        } finally {
+            lanes.offer(session);
+            sheetRows.done(row);
+        }
+    }
+
+    private WebDriver takeLane() {
+        try {
+            return lanes.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Policy Name session", e);
+        }
+    }
+
+    @Test(description = "TC-05: Fuzz corpus typed in-page in batches, cross-checked with sendKeys")
+    public void testTC05_PolicyNameFuzzCorpus() {
+        List<String> failures = new ArrayList<>();
+        InputValidationEngine engine = new InputValidationEngine(driver, POLICY_NAME);
+
+        InputValidationEngine.Report report = engine.run(
+                InputValidationEngine.fuzzCorpus(Integer.getInteger("validation.corpus", 2000), 17),
+                (index, input, actual, outcome) -> {
+                    String expected = PolicyNameSheet.expectedFor(input);
+                    if (!InputOutcome.parse(expected).contains(outcome) && failures.size() < 20) {
+                        failures.add("'" + input + "' was " + outcome + " ('" + actual + "'), expected " + expected);
+                    }
+                });
+        SuiteLog.info("TC05: " + report);
+
+        Assert.assertEquals(report.mismatches(), 0L,
+                "In-page typing disagrees with sendKeys: " + report.mismatchExamples());
+        Assert.assertTrue(failures.isEmpty(), "TC-05 unexpected outcomes: " + failures);
     }
 
     @AfterClass(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) driver.quit();
+        // Releases the sheet if TC-04 stopped before its last row
+        if (sheetRows != null) sheetRows.close();
+        for (WebDriver extra : extraLanes) DriverPool.get().release(extra);
+        extraLanes.clear();
+        lanes.clear();
+        if (results != null && results.rows() > 0) {
+            results.close();
+            SuiteLog.info("TC04: " + results.rows() + " spreadsheet rows written to " + results.file());
+        } else if (results != null) {
+            results.discard();
+        }
+        DriverFactory.stop();
     }
 }
@@ -1,88 +1,83 @@
 package insuredge_apurva;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.support.ui.*;
 import org.testng.Assert;
 import org.testng.annotations.*;
 
 import java.time.Duration;
-import java.util.List;
 
-public class US17P4_20 {
+public class US17P4_20 implements RestorableState {
 
     WebDriver driver;
     WebDriverWait wait;
+    DomWait domWait;
+    String startUrl;
 
     @BeforeClass
     public void setup() {
 
-        driver = new ChromeDriver();
-        driver.manage().window().maximize();
+        // LOGGED-IN SESSION FROM THE POOL
+        driver = DriverFactory.start(getClass());
         wait = new WebDriverWait(driver, Duration.ofSeconds(12));
-
-        // LOGIN
-        driver.get("https://qeaskillhub.cognizant.com/LoginPage");
-
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("txtUsername")))
-                .sendKeys("admin_user");
-        driver.findElement(By.name("txtPassword"))
-                .sendKeys("testadmin", Keys.ENTER);
-
-        // Wait for sidebar as a post-login signal
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("sidebar-nav")));
+        domWait = new DomWait(driver, Duration.ofSeconds(12));
 
         // NAVIGATE TO REJECTED POLICY HOLDERS
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='sidebar-nav']/li[5]/a/i[2]"))).click();
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='policyHolder-nav']/li[4]/a/span"))).click();
+        Navigator.to(driver, Navigator.Page.REJECTED_POLICY_HOLDERS);
 
         // Ensure table is present before tests
-        wait.until(ExpectedConditions.presenceOfElementLocated(
+        domWait.until(DomConditions.presenceOfElementLocated(
                 By.xpath("//table[@id='ContentPlaceHolder_Admin_gvRejectedHolders']")
         ));
 
         // Scroll down to pagination area (kept same behavior)
         ((JavascriptExecutor) driver).executeScript("window.scroll(0,600);");
+        startUrl = driver.getCurrentUrl();
+    }
+
+    // Before a retry: page 1 of the Rejected grid, scrolled to the pager
+    @Override
+    public void restoreState() {
+        driver.get(startUrl);
+        domWait.until(DomConditions.presenceOfElementLocated(
+                By.xpath("//table[@id='ContentPlaceHolder_Admin_gvRejectedHolders']")
+        ));
+        ((JavascriptExecutor) driver).executeScript("window.scroll(0,600);");
     }
 
     // ---------------- TC1 ----------------
     @Test(priority = 1)
     public void testPaginationControlDisplayed() {
 
-        WebElement pagination = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement pagination = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='ContentPlaceHolder_Admin_gvRejectedHolders']/tbody/tr[12]")
         ));
 
         Assert.assertTrue(pagination.isDisplayed(),
                 "Pagination row is NOT displayed!");
 
-        System.out.println("TC01 : Pagination control is visible.");
+        SuiteLog.info("TC01 : Pagination control is visible.");
     }
 
     // ---------------- TC2 ----------------
     @Test(priority = 2, dependsOnMethods = "testPaginationControlDisplayed")
     public void testPageNumbersDisplayed() {
 
-        List<WebElement> pages = wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(
-                By.xpath("//td[@colspan='11']/table/tbody/tr")
-        ));
+        // Pager items and the active page in one script call
+        GridSnapshot grid = wait.until(d -> GridSnapshot.capture(d, GridSnapshot.REJECTED_GRID));
 
-        Assert.assertTrue(pages.size() > 0,
+        Assert.assertTrue(grid.hasPager(),
                 "Page number controls NOT found!");
 
-        System.out.println("Page numbers:");
-        for (WebElement p : pages) {
-            System.out.println(" > " + p.getText().trim());
+        SuiteLog.info("Page numbers:");
+        for (GridSnapshot.PagerItem p : grid.pager()) {
+            SuiteLog.info(" > " + p.label);
         }
 
-        WebElement activePage = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath("//td[@colspan='11']/table/tbody/tr/td[1]")
-        ));
-
-        Assert.assertTrue(activePage.isDisplayed(),
+        Assert.assertTrue(grid.isPagerDisplayed() && grid.activePage() > 0,
                 "Active page highlight is missing!");
 
-        System.out.println("TC02: Page numbers + active highlight detected.");
+        SuiteLog.info("TC02: Page numbers + active highlight detected.");
     }
 
     // ---------------- TC3 ----------------
@@ -90,36 +85,36 @@ public class US17P4_20 {
     public void testPageNavigation() {
 
         // First row before switching page
-        By firstRowCellBy = By.xpath("//table[@id='ContentPlaceHolder_Admin_gvRejectedHolders']/tbody/tr[2]/td[1]");
-        String before = wait.until(ExpectedConditions.visibilityOfElementLocated(firstRowCellBy)).getText();
+        GridSnapshot beforeGrid = wait.until(d -> GridSnapshot.capture(d, GridSnapshot.REJECTED_GRID));
+        String before = beforeGrid.row(0).customerName();
 
-        System.out.println("Before switching page → " + before);
+        SuiteLog.info("Before switching page → " + before);
 
         // Click page 2 (NO try-catch!)
-        WebElement page2 = wait.until(ExpectedConditions.elementToBeClickable(
+        WebElement page2 = domWait.until(DomConditions.elementToBeClickable(
                 By.xpath("//td[@colspan='11']/table/tbody/tr/td[2]")
         ));
+        PageSettle settle = PageSettle.arm(driver);
         page2.click();
 
-        // Wait until the first row cell text changes
-        wait.until(ExpectedConditions.not(ExpectedConditions.textToBe(firstRowCellBy, before)));
+        // Proceed as soon as the postback has settled, whatever the first customer is
+        SuiteLog.info("Page 2 " + settle.awaitSettled(Duration.ofSeconds(12)));
+        GridSnapshot afterGrid = GridSnapshot.capture(driver, GridSnapshot.REJECTED_GRID);
 
         // First row after switching page
-        String after = wait.until(ExpectedConditions.visibilityOfElementLocated(firstRowCellBy)).getText();
+        String after = afterGrid.row(0).customerName();
 
-        System.out.println("After switching page → " + after);
+        SuiteLog.info("After switching page → " + after);
 
         Assert.assertNotEquals(after, before,
                 "Data did NOT change after clicking page 2!");
 
-        System.out.println("TC03: Page Number is displayed.");
-        System.out.println();
-        System.out.println("US17P4_20: PASSED");
-        System.out.println();
+        SuiteLog.info("TC03: Page Number is displayed.");
+        SuiteLog.info("US17P4_20: PASSED");
     }
 
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) driver.quit();
+        DriverFactory.stop();
     }
 }
@@ -1,7 +1,6 @@
 package insuredge_apurva;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.*;
 import org.testng.Assert;
@@ -9,40 +8,44 @@ import org.testng.annotations.*;
 
 import java.time.Duration;
 
-public class US17P4_25 {
+public class US17P4_25 implements RestorableState {
 
     WebDriver driver;
     JavascriptExecutor js;
     Actions actions;
     WebDriverWait wait;
+    DomWait domWait;
 
     String tableId = "ContentPlaceHolder_Admin_gvRejectedHolders";
+    String startUrl;
 
     @BeforeClass
     public void setup() {
 
-        driver = new ChromeDriver();
-        driver.manage().window().maximize();
+        // LOGGED-IN SESSION FROM THE POOL
+        driver = DriverFactory.start(getClass());
         js = (JavascriptExecutor) driver;
         actions = new Actions(driver);
         wait = new WebDriverWait(driver, Duration.ofSeconds(12));
+        domWait = new DomWait(driver, Duration.ofSeconds(12));
 
-        // LOGIN
-        driver.get("https://qeaskillhub.cognizant.com/LoginPage");
+        // Navigate → Rejected Policy Holders
+        Navigator.to(driver, Navigator.Page.REJECTED_POLICY_HOLDERS);
 
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("txtUsername")))
-            .sendKeys("admin_user");
-        driver.findElement(By.name("txtPassword")).sendKeys("testadmin", Keys.ENTER);
-
-        // Wait for sidebar as post-login signal
-        wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("sidebar-nav")));
+        showStatusColumn();
+        startUrl = driver.getCurrentUrl();
+    }
 
-        // Navigate → Policy Holder's → Rejected Policy Holders
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='sidebar-nav']/li[5]/a/i[2]"))).click();
-        wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='policyHolder-nav']/li[4]/a/span"))).click();
+    // Before a retry: reload Rejected Policy Holders and bring Status back into view
+    @Override
+    public void restoreState() {
+        driver.get(startUrl);
+        showStatusColumn();
+    }
 
+    private void showStatusColumn() {
         // Ensure table is present and visible
-        wait.until(ExpectedConditions.visibilityOfElementLocated(
+        domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='" + tableId + "']")
         ));
 
@@ -50,134 +53,146 @@ public class US17P4_25 {
         js.executeScript("window.scrollBy(0,300)");
 
         // --- MUST: bring STATUS column into view (right scroll alternative) ---
-        WebElement statusHeader = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement statusHeader = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//th[normalize-space()='Status']")));
         js.executeScript(
             "arguments[0].scrollIntoView({behavior:'instant', block:'nearest', inline:'end'})",
             statusHeader
         );
         // Re-assert to ensure it’s in view before tests proceed
-        wait.until(ExpectedConditions.visibilityOf(statusHeader));
+        domWait.until(DomConditions.visibilityOf(statusHeader));
     }
 
     // ================================
     // TC1: Status cannot be edited by mouse click
     // ================================
     @Test
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE}, mutates = Step.State.FOCUS)
     public void tc1_statusNotEditableOnClick() {
-        WebElement cell = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement cell = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='" + tableId + "']/tbody/tr[2]/td[11]")));
 
-        String before = cell.getText().trim();
+        GridSnapshot before = grid();
         cell.click();
 
-        // Wait for stability (no change expected)
-        wait.until(ExpectedConditions.textToBePresentInElement(cell, before));
-        String after = cell.getText().trim();
+        // Compare the Status column of the whole page locally (no change expected)
+        GridSnapshot.Diff diff = before.diff(grid());
 
-        Assert.assertEquals(after, before, "Status changed after click!");
-        System.out.println("TC01 PASS: Status cannot be edited by mouse click.");
+        Assert.assertTrue(diff.columnUnchanged(GridSnapshot.STATUS), "Status changed after click! " + diff);
+        SuiteLog.info("TC01 PASS: Status cannot be edited by mouse click.");
     }
 
     // ================================
     // TC2: Status does not allow Copy/Paste
     // ================================
     @Test(dependsOnMethods = "tc1_statusNotEditableOnClick")
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE}, mutates = Step.State.FOCUS)
     public void tc2_statusNoCopyPaste() {
-        WebElement cell = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement cell = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='" + tableId + "']/tbody/tr[2]/td[11]")));
 
-        String before = cell.getText().trim();
+        GridSnapshot before = grid();
         actions.click(cell)
                .keyDown(Keys.CONTROL).sendKeys("a").keyUp(Keys.CONTROL)
                .keyDown(Keys.CONTROL).sendKeys("v").keyUp(Keys.CONTROL)
                .perform();
 
-        // Wait expecting no change
-        wait.until(ExpectedConditions.textToBePresentInElement(cell, before));
-
-        String after = cell.getText().trim();
-        Assert.assertEquals(after, before, "Status changed after copy/paste!");
-        System.out.println("TC02 PASS: Status does not accept copy/paste.");
+        // Expecting no change
+        GridSnapshot.Diff diff = before.diff(grid());
+        Assert.assertTrue(diff.columnUnchanged(GridSnapshot.STATUS), "Status changed after copy/paste! " + diff);
+        SuiteLog.info("TC02 PASS: Status does not accept copy/paste.");
     }
 
     // ================================
     // TC3: Typing keys should NOT update Status
     // ================================
     @Test(dependsOnMethods = "tc2_statusNoCopyPaste")
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE}, mutates = Step.State.FOCUS)
     public void tc3_statusDoesNotChangeOnTyping() {
-        WebElement cell = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement cell = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='" + tableId + "']/tbody/tr[2]/td[11]")));
 
-        String before = cell.getText().trim();
+        GridSnapshot before = grid();
 
         actions.click(cell).sendKeys("APPROVED123").perform();
 
-        // Wait expecting no change
-        wait.until(ExpectedConditions.textToBePresentInElement(cell, before));
-
-        String after = cell.getText().trim();
-        Assert.assertEquals(after, before, "Status changed on typing!");
-        System.out.println("TC03 PASS: Status does not change on typing.");
+        // Expecting no change
+        GridSnapshot.Diff diff = before.diff(grid());
+        Assert.assertTrue(diff.columnUnchanged(GridSnapshot.STATUS), "Status changed on typing! " + diff);
+        SuiteLog.info("TC03 PASS: Status does not change on typing.");
     }
 
     // ================================
     // TC4: Status must remain “Rejected”
     // ================================
     @Test(dependsOnMethods = "tc3_statusDoesNotChangeOnTyping")
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE})
     public void tc4_statusAlwaysRejected() {
-        WebElement cell = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath("//table[@id='" + tableId + "']/tbody/tr[2]/td[11]")));
-
-        Assert.assertEquals(cell.getText().trim(), "Rejected", "Status is not 'Rejected'!");
-        System.out.println("TC04 PASS: Status always remains 'Rejected'.");
+        // Every row on the visible page, not just the first one, in one script call
+        GridSnapshot grid = grid(StepScheduler.session(driver));
+        Assert.assertTrue(grid.rowCount() > 0, "No rows in the grid!");
+        for (GridSnapshot.Row row : grid.rows()) {
+            Assert.assertEquals(row.status(), "Rejected", "Status is not 'Rejected' in row " + (row.index() + 1) + "!");
+        }
+        SuiteLog.info("TC04 PASS: Status always remains 'Rejected'.");
     }
 
     // ================================
     // TC5: Hover does not change Status
     // ================================
     @Test(dependsOnMethods = "tc4_statusAlwaysRejected")
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE}, mutates = Step.State.FOCUS)
     public void tc5_statusDoesNotChangeOnHover() {
-        WebElement cell = wait.until(ExpectedConditions.visibilityOfElementLocated(
+        WebElement cell = domWait.until(DomConditions.visibilityOfElementLocated(
                 By.xpath("//table[@id='" + tableId + "']/tbody/tr[2]/td[11]")));
 
-        String before = cell.getText().trim();
+        GridSnapshot before = grid();
         actions.moveToElement(cell).pause(Duration.ofMillis(500)).perform();
 
         // No change expected after hover
-        wait.until(ExpectedConditions.textToBePresentInElement(cell, before));
-        String after = cell.getText().trim();
+        GridSnapshot.Diff diff = before.diff(grid());
 
-        Assert.assertEquals(after, before, "Status changed on hover!");
-        System.out.println("TC05 PASS: Hover does not change Status.");
+        Assert.assertTrue(diff.columnUnchanged(GridSnapshot.STATUS), "Status changed on hover! " + diff);
+        SuiteLog.info("TC05 PASS: Hover does not change Status.");
     }
 
     // ================================
     // TC6: No UI option to change Status icon/menu/button
     // ================================
     @Test(dependsOnMethods = "tc5_statusDoesNotChangeOnHover")
+    @Step(reads = {Step.State.PAGE, Step.State.GRID_PAGE})
     public void tc6_noUiToChangeStatus() {
+        WebDriver session = StepScheduler.session(driver);
 
         // Check header for any icon/button
-        int headerControls = driver.findElements(
+        int headerControls = session.findElements(
                 By.xpath("//th[normalize-space()='Status']//button | //th[normalize-space()='Status']//a | //th[normalize-space()='Status']//i")
         ).size();
 
         // Check cell for any UI element (edit icon/link)
-        int cellControls = driver.findElements(
+        int cellControls = session.findElements(
                 By.xpath("//table[@id='" + tableId + "']//tbody/tr[2]/td[11]//a | //table[@id='" + tableId + "']//tbody/tr[2]/td[11]//button")
         ).size();
 
         Assert.assertEquals(headerControls, 0, "Editable UI element found in header!");
         Assert.assertEquals(cellControls, 0, "Editable UI element found in Status cell!");
 
-        System.out.println("TC06 PASS: No UI element allows changing Status.");
-        System.out.println();
-        System.out.println("US17P4_25: PASSED");
+        SuiteLog.info("TC06 PASS: No UI element allows changing Status.");
+        SuiteLog.info("US17P4_25: PASSED");
+    }
+
+    private GridSnapshot grid() {
+        return wait.until(d -> GridSnapshot.capture(d, tableId));
+    }
+
+    private GridSnapshot grid(WebDriver session) {
+        return session == driver ? grid()
+                : new WebDriverWait(session, Duration.ofSeconds(12)).until(d -> GridSnapshot.capture(d, tableId));
     }
 
-    @AfterClass
+    // Under testng-dag.xml this may run on another thread than setup()
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) driver.quit();
+        DriverFactory.stop(driver);
     }
 }
\ No newline at end of file
@@ -0,0 +1,383 @@
+package insuredge_apurva;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Layout and visibility of a page's elements at many viewport sizes in one pass.
+ *
+ * Instead of resizing the OS window, every viewport is applied to its own tab with DevTools
+ * Emulation.setDeviceMetricsOverride (width, height, device pixel ratio, mobile) before the tab
+ * navigates to the page, so the page lays out at that size from the start. Each session opens up to
+ * -Dviewports.tabs tabs, starts all their navigations without waiting, and then probes them one
+ * after another with a single script per tab; the loads overlap, so a round costs about one page
+ * load whatever the number of tabs. With -Dviewports.sessions > 1 the matrix is split across more
+ * pooled sessions on their own threads. The caller's tab is neither navigated nor resized.
+ *
+ * Viewports, first match wins:
+ *   -Dviewports.file=<file or classpath resource>   one per line: name width height [dpr] [mobile]
+ *   -Dviewports=name:WxH[@dpr][m],...                 e.g. iphone-12:390x844@3m
+ *   the caller's defaults
+ * src/main/resources/viewports.txt lists common phones, tablets and desktops.
+ */
+public final class ViewportMatrix {
+
+    // Marks the outgoing document, then navigates; the probe waits for a document without the mark
+    static final String NAVIGATE_JS = "window.__viewportMatrix = true; location.replace(arguments[0]);";
+
+    // DomConditions.script body, $0 = selector of the first target
+    static final String READY_JS =
+            "return !window.__viewportMatrix && document.readyState === 'complete' && !!document.querySelector($0);";
+
+    // For each named selector: {found, visible, x, y, width, height}, plus the page's overflow
+    static final String PROBE_JS =
+            "var targets = arguments[0], out = {}, vw = window.innerWidth, vh = window.innerHeight;"
+                    + "for (var name in targets) {"
+                    + "  var el = document.querySelector(targets[name]);"
+                    + "  if (!el) { out[name] = {found: false, visible: false}; continue; }"
+                    + "  el.scrollIntoView({block: 'end', inline: 'nearest'});"
+                    + "  var r = el.getBoundingClientRect(), cs = getComputedStyle(el);"
+                    + "  var shown = cs.display !== 'none' && cs.visibility !== 'hidden' && parseFloat(cs.opacity) > 0;"
+                    + "  var inView = r.bottom > 0 && r.right > 0 && r.top < vh && r.left < vw;"
+                    + "  out[name] = {found: true, visible: shown && r.width > 0 && r.height > 0 && inView,"
+                    + "    x: Math.round(r.left), y: Math.round(r.top), width: Math.round(r.width), height: Math.round(r.height)};"
+                    + "}"
+                    + "return {targets: out, innerWidth: vw, innerHeight: vh,"
+                    + "  scrollWidth: document.documentElement.scrollWidth};";
+
+    private final Map<String, String> targets;
+    private final Duration pageTimeout;
+    private final int tabs = Math.max(1, Integer.getInteger("viewports.tabs", 6));
+    private final int sessions = Math.max(1, Integer.getInteger("viewports.sessions", 1));
+
+    // targets: name -> CSS selector; the first one must exist for a tab to count as loaded
+    public ViewportMatrix(Map<String, String> targets, Duration pageTimeout) {
+        if (targets.isEmpty()) throw new IllegalArgumentException("ViewportMatrix needs at least one target");
+        this.targets = Collections.unmodifiableMap(new LinkedHashMap<>(targets));
+        this.pageTimeout = pageTimeout;
+    }
+
+    // ---------- Viewports ----------
+
+    public static final class Viewport {
+        public final String name;
+        public final int width;
+        public final int height;
+        public final double scale;
+        public final boolean mobile;
+
+        public Viewport(String name, int width, int height, double scale, boolean mobile) {
+            this.name = name;
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+            this.mobile = mobile;
+        }
+
+        public static Viewport of(int width, int height) {
+            return new Viewport(width + "x" + height, width, height, 1, false);
+        }
+
+        // name:WxH[@dpr][m]
+        static Viewport parse(String spec) {
+            String s = spec.trim();
+            int colon = s.indexOf(':');
+            String name = colon < 0 ? s : s.substring(0, colon);
+            String size = colon < 0 ? s : s.substring(colon + 1);
+            boolean mobile = size.endsWith("m");
+            if (mobile) size = size.substring(0, size.length() - 1);
+            double scale = 1;
+            int at = size.indexOf('@');
+            if (at >= 0) {
+                scale = Double.parseDouble(size.substring(at + 1));
+                size = size.substring(0, at);
+            }
+            int x = size.indexOf('x');
+            if (x < 0) throw new IllegalArgumentException("Viewport '" + spec + "' is not name:WxH[@dpr][m]");
+            return new Viewport(name, Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1)),
+                    scale, mobile);
+        }
+
+        Map<String, Object> metrics() {
+            Map<String, Object> m = new HashMap<>();
+            m.put("width", width);
+            m.put("height", height);
+            m.put("deviceScaleFactor", scale);
+            m.put("mobile", mobile);
+            return m;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%dx%d%s%s)", name, width, height,
+                    scale == 1 ? "" : "@" + scale, mobile ? " mobile" : "");
+        }
+    }
+
+    public static List<Viewport> configured(List<Viewport> defaults) {
+        String file = System.getProperty("viewports.file");
+        if (file != null) return load(file);
+        String inline = System.getProperty("viewports");
+        if (inline != null && !inline.trim().isEmpty()) {
+            List<Viewport> list = new ArrayList<>();
+            for (String spec : inline.split(",")) list.add(Viewport.parse(spec));
+            return list;
+        }
+        return defaults;
+    }
+
+    static List<Viewport> load(String source) {
+        File f = new File(source);
+        try (InputStream in = f.isFile() ? new FileInputStream(f) : ViewportMatrix.class.getClassLoader().getResourceAsStream(source)) {
+            if (in == null) throw new IllegalArgumentException("Viewport list " + source + " not found");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<Viewport> list = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] p = line.split("\\s+");
+                list.add(new Viewport(p[0], Integer.parseInt(p[1]), Integer.parseInt(p[2]),
+                        p.length > 3 ? Double.parseDouble(p[3]) : 1, p.length > 4 && "mobile".equals(p[4])));
+            }
+            return list;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read viewport list " + source, e);
+        }
+    }
+
+    // ---------- Run ----------
+
+    public Report run(WebDriver driver, List<Viewport> viewports) {
+        String url = driver.getCurrentUrl();
+        Report report = new Report(viewports.size());
+        long start = System.nanoTime();
+
+        int workers = Math.min(sessions, (viewports.size() + tabs - 1) / tabs);
+        if (workers <= 1) {
+            probeAll(driver, url, viewports, report);
+        } else {
+            runInParallel(driver, url, viewports, workers, report);
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void runInParallel(WebDriver driver, String url, List<Viewport> viewports, int workers, Report report) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            // Round-robin so large and small viewports spread evenly
+            List<Viewport> slice = new ArrayList<>();
+            for (int v = i; v < viewports.size(); v += workers) slice.add(viewports.get(v));
+            final boolean own = i == 0;
+            futures.add(executor.submit(() -> {
+                WebDriver worker = own ? driver : DriverPool.get().borrow(DriverPool.get().profileOf(driver));
+                try {
+                    probeAll(worker, url, slice, report);
+                } finally {
+                    if (!own) DriverPool.get().release(worker);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while probing viewports", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Viewport session failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Opens the tabs on this session, probes the slice in rounds of `tabs`, closes them again
+    private void probeAll(WebDriver driver, String url, List<Viewport> viewports, Report report) {
+        String home = driver.getWindowHandle();
+        BrowserProfile profile = DriverPool.get().profileOf(driver);
+        List<String> handles = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(tabs, viewports.size()); i++) {
+                handles.add(DriverPool.get().openTab(driver));
+                if (profile != null) profile.blockResources(cdp(driver));
+            }
+            for (int from = 0; from < viewports.size(); from += handles.size()) {
+                int n = Math.min(handles.size(), viewports.size() - from);
+                // Start every load first, then read them in the same order
+                for (int t = 0; t < n; t++) {
+                    driver.switchTo().window(handles.get(t));
+                    cdp(driver).executeCdpCommand("Emulation.setDeviceMetricsOverride", viewports.get(from + t).metrics());
+                    ((JavascriptExecutor) driver).executeScript(NAVIGATE_JS, url);
+                }
+                for (int t = 0; t < n; t++) {
+                    driver.switchTo().window(handles.get(t));
+                    report.add(probe(driver, viewports.get(from + t)));
+                }
+            }
+        } finally {
+            for (String h : handles) {
+                driver.switchTo().window(h).close();
+            }
+            driver.switchTo().window(home);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result probe(WebDriver driver, Viewport viewport) {
+        long start = System.nanoTime();
+        String ready = targets.values().iterator().next();
+        try {
+            new DomWait(driver, pageTimeout).until(DomConditions.script("viewport page loaded", READY_JS, ready));
+        } catch (RuntimeException e) {
+            return Result.failed(viewport, "page did not load: " + e.getClass().getSimpleName());
+        }
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(PROBE_JS, targets);
+        return Result.of(viewport, raw, System.nanoTime() - start);
+    }
+
+    // The pooled driver is decorated; DevTools goes to the Chrome underneath (current tab)
+    static HasCdp cdp(WebDriver driver) {
+        WebDriver d = driver;
+        while (!(d instanceof HasCdp) && d instanceof WrapsDriver) {
+            d = ((WrapsDriver) d).getWrappedDriver();
+        }
+        if (!(d instanceof HasCdp)) throw new IllegalStateException("Viewport emulation needs a Chromium session");
+        return (HasCdp) d;
+    }
+
+    // ---------- Results ----------
+
+    public static final class Target {
+        public final boolean found;
+        public final boolean visible;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        Target(boolean found, boolean visible, int x, int y, int width, int height) {
+            this.found = found;
+            this.visible = visible;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public String toString() {
+            if (!found) return "missing";
+            return (visible ? "visible " : "hidden ") + width + "x" + height + "@" + x + "," + y;
+        }
+    }
+
+    public static final class Result {
+        public final Viewport viewport;
+        public final Map<String, Target> targets;
+        public final boolean horizontalOverflow;
+        public final String problem;
+        final long nanos;
+
+        private Result(Viewport viewport, Map<String, Target> targets, boolean horizontalOverflow, String problem, long nanos) {
+            this.viewport = viewport;
+            this.targets = targets;
+            this.horizontalOverflow = horizontalOverflow;
+            this.problem = problem;
+            this.nanos = nanos;
+        }
+
+        static Result failed(Viewport viewport, String problem) {
+            return new Result(viewport, Collections.<String, Target>emptyMap(), false, problem, 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Result of(Viewport viewport, Map<String, Object> raw, long nanos) {
+            Map<String, Target> targets = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) raw.get("targets")).entrySet()) {
+                Map<String, Object> t = (Map<String, Object>) e.getValue();
+                targets.put(e.getKey(), new Target(Boolean.TRUE.equals(t.get("found")), Boolean.TRUE.equals(t.get("visible")),
+                        number(t.get("x")), number(t.get("y")), number(t.get("width")), number(t.get("height"))));
+            }
+            boolean overflow = number(raw.get("scrollWidth")) > number(raw.get("innerWidth"));
+            return new Result(viewport, targets, overflow, null, nanos);
+        }
+
+        private static int number(Object o) {
+            return o instanceof Number ? ((Number) o).intValue() : 0;
+        }
+
+        public boolean visible(String target) {
+            Target t = targets.get(target);
+            return t != null && t.visible;
+        }
+
+        @Override
+        public String toString() {
+            if (problem != null) return viewport + ": " + problem;
+            return viewport + ": " + targets + (horizontalOverflow ? " | page scrolls horizontally" : "");
+        }
+    }
+
+    public static final class Report {
+        private final ConcurrentLinkedQueue<Result> results = new ConcurrentLinkedQueue<>();
+        private final LatencyHistogram probeLatency = new LatencyHistogram();
+        private final int viewports;
+        volatile long elapsedNanos;
+
+        Report(int viewports) {
+            this.viewports = viewports;
+        }
+
+        void add(Result r) {
+            results.add(r);
+            if (r.problem == null) probeLatency.record(r.nanos);
+        }
+
+        public List<Result> results() {
+            return new ArrayList<>(results);
+        }
+
+        // Viewports at which the target was missing, hidden or the page never loaded
+        public List<Result> notVisible(String target) {
+            List<Result> list = new ArrayList<>();
+            for (Result r : results) {
+                if (!r.visible(target)) list.add(r);
+            }
+            return list;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%d viewports in %d ms | per-tab load+probe %s%n",
+                    viewports, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), probeLatency.summary()));
+            for (Result r : results) sb.append("  ").append(r).append('\n');
+            return sb.toString();
+        }
+    }
+}